@@ -1,15 +1,19 @@
 package net.sortcraft.compat;
 
+import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.item.enchantment.Enchantment;
 
+import java.util.List;
+
 /**
  * Registry helper for Minecraft 1.21.1
  * In 1.21.1, BuiltInRegistries.ITEM.get() returns Item directly
@@ -47,6 +51,24 @@ public final class RegistryHelper {
         return BuiltInRegistries.ITEM.get(id);
     }
 
+    /**
+     * Get the items in a tag from the registry's named tag set, or null if the tag doesn't exist.
+     * In 1.21.1 the named tag set is looked up with getTag().
+     */
+    public static List<Holder<Item>> getItemTagOrNull(TagKey<Item> tagKey) {
+        return BuiltInRegistries.ITEM.getTag(tagKey)
+            .map(named -> named.stream().toList())
+            .orElse(null);
+    }
+
+    /**
+     * Get the keys of all item tags bound in the registry.
+     * In 1.21.1 tag keys are listed with getTagNames().
+     */
+    public static List<TagKey<Item>> getItemTagKeys() {
+        return BuiltInRegistries.ITEM.getTagNames().toList();
+    }
+
     /**
      * Get an enchantment by its ResourceLocation from the registry access.
      * Returns null if not found.
@@ -1,14 +1,18 @@
 package net.sortcraft.compat;
 
 import net.minecraft.core.HolderLookup;
+import net.minecraft.core.Holder;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.enchantment.Enchantment;
 
+import java.util.List;
+
 /**
  * Registry helper for Minecraft 1.21.4+
  * In 1.21.4+, BuiltInRegistries.ITEM.get() returns Optional<Holder.Reference<Item>>
@@ -42,6 +46,24 @@ public final class RegistryHelper {
         return BuiltInRegistries.ITEM.getValue(id);
     }
 
+    /**
+     * Get the items in a tag from the registry's named tag set, or null if the tag doesn't exist.
+     * In 1.21.4+ the named tag set is looked up with get().
+     */
+    public static List<Holder<Item>> getItemTagOrNull(TagKey<Item> tagKey) {
+        return BuiltInRegistries.ITEM.get(tagKey)
+            .map(named -> named.stream().toList())
+            .orElse(null);
+    }
+
+    /**
+     * Get the keys of all item tags bound in the registry.
+     * In 1.21.4+ tag keys are listed with listTagIds().
+     */
+    public static List<TagKey<Item>> getItemTagKeys() {
+        return BuiltInRegistries.ITEM.listTagIds().toList();
+    }
+
     /**
      * Get an enchantment by its ResourceLocation from the registry access.
      * Returns null if not found.
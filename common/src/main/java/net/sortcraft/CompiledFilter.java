@@ -0,0 +1,189 @@
+package net.sortcraft;
+
+import net.sortcraft.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A category's filter rules compiled into a single predicate.
+ *
+ * <p>Rules start out cheapest first (see {@link FilterRule#cost()}), keeping their configured
+ * order on ties, and share component reads through a {@link FilterInput}.
+ *
+ * <p>Each rule counts how often it is evaluated and how often it rejects a stack. Every
+ * {@value #REORDER_INTERVAL} evaluations the rules are re-ordered by expected cost per
+ * rejection, so rules that are cheap and reject often run first. Since every rule must
+ * match, the order never changes the result. Counters are halved on each re-order so the
+ * order follows recent input. Counting is not synchronized; the counts are estimates.
+ *
+ * <p>Filters are shared between the server thread and sort planning on a worker thread. A re-order
+ * never changes the array being evaluated: it sorts a snapshot of the scores into a new array and
+ * publishes that through a volatile field, one re-order at a time, so every evaluation sees each
+ * rule exactly once.
+ *
+ * <p>With {@link ConfigManager#isFilterCodegenEnabled()}, the rules are instead turned into a
+ * generated class (see {@link FilterCodegen}) that runs them in their starting order. Generated
+ * filters are not re-ordered and keep no counters. If generation fails, the filter falls back
+ * to the adaptive mode.
+ */
+public final class CompiledFilter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
+
+    public static final int COST_STACKABLE = 0;
+    public static final int COST_DURABILITY = 10;
+    public static final int COST_CUSTOM_NAME = 20;
+    public static final int COST_ENCHANTMENT = 30;
+    public static final int COST_DEFAULT = 40;
+
+    static final int REORDER_INTERVAL = 1024;
+
+    /** Filter with no rules, matching every stack. */
+    public static final CompiledFilter ALWAYS = new CompiledFilter(new Slot[0], null);
+
+    /**
+     * Snapshot of one rule's position and counters.
+     *
+     * @param rule Description of the rule
+     * @param cost Static cost estimate of the rule
+     * @param evaluated Number of times the rule was evaluated (decayed)
+     * @param rejected Number of times the rule rejected a stack (decayed)
+     */
+    public record RuleStats(String rule, int cost, long evaluated, long rejected) {
+        public double rejectRate() {
+            return evaluated == 0 ? 0 : (double) rejected / evaluated;
+        }
+    }
+
+    private static final class Slot {
+        final FilterRule rule;
+        final int cost;
+        long evaluated;
+        long rejected;
+
+        Slot(FilterRule rule) {
+            this.rule = rule;
+            this.cost = rule.cost();
+        }
+
+        // Expected cost paid per rejection; +1s keep unevaluated and zero-cost rules ordered by cost
+        double score() {
+            return (cost + 1) * (evaluated + 1.0) / (rejected + 1.0);
+        }
+    }
+
+    private volatile Slot[] slots;
+    private volatile int untilReorder = REORDER_INTERVAL;
+    // Generated class running the rules, or null to run them adaptively
+    private final FilterCodegen.Program program;
+
+    private CompiledFilter(Slot[] slots, FilterCodegen.Program program) {
+        this.slots = slots;
+        this.program = program;
+    }
+
+    /**
+     * Compiles a list of filter rules, generating a class for them if enabled in the config.
+     * The list is copied.
+     */
+    public static CompiledFilter compile(List<FilterRule> filters) {
+        return compile(filters, ConfigManager.isFilterCodegenEnabled());
+    }
+
+    /**
+     * Compiles a list of filter rules. The list is copied.
+     *
+     * @param generate If true, run the rules through a generated class instead of adaptively
+     */
+    public static CompiledFilter compile(List<FilterRule> filters, boolean generate) {
+        if (filters.isEmpty()) return ALWAYS;
+        Slot[] slots = new Slot[filters.size()];
+        for (int i = 0; i < slots.length; i++) slots[i] = new Slot(filters.get(i));
+        // Arrays.sort on objects is stable, so equal-cost rules keep their configured order
+        Arrays.sort(slots, Comparator.comparingInt(slot -> slot.cost));
+
+        FilterCodegen.Program program = null;
+        if (generate) {
+            List<FilterRule> ordered = new ArrayList<>(slots.length);
+            for (Slot slot : slots) ordered.add(slot.rule);
+            try {
+                program = FilterCodegen.generate(ordered);
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                LOGGER.warn("Failed to generate filter class for {}, using adaptive filters", ordered, e);
+            }
+        }
+        return new CompiledFilter(slots, program);
+    }
+
+    /**
+     * Returns true if every rule matches the stack.
+     */
+    public boolean matches(FilterInput input) {
+        if (program != null) return program.matches(input);
+        Slot[] current = slots;
+        if (current.length == 0) return true;
+
+        boolean result = true;
+        for (Slot slot : current) {
+            slot.evaluated++;
+            if (!slot.rule.matches(input)) {
+                slot.rejected++;
+                result = false;
+                break;
+            }
+        }
+
+        if (current.length > 1 && --untilReorder <= 0) reorder(current);
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return slots.length == 0;
+    }
+
+    /**
+     * Returns true if the rules run through a generated class, in a fixed order and without counters.
+     */
+    public boolean isGenerated() {
+        return program != null;
+    }
+
+    /**
+     * Returns the rules in their current evaluation order with their counters.
+     */
+    public List<RuleStats> getStats() {
+        List<RuleStats> stats = new ArrayList<>();
+        for (Slot slot : slots) {
+            stats.add(new RuleStats(slot.rule.toString(), slot.cost, slot.evaluated, slot.rejected));
+        }
+        return stats;
+    }
+
+    private synchronized void reorder(Slot[] current) {
+        // Another thread re-ordered while this one was waiting
+        if (current != slots) return;
+        untilReorder = REORDER_INTERVAL;
+
+        // Scores are read once, since other threads keep counting while this sorts
+        Integer[] order = new Integer[current.length];
+        double[] scores = new double[current.length];
+        for (int i = 0; i < current.length; i++) {
+            order[i] = i;
+            scores[i] = current[i].score();
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> scores[i]));
+
+        Slot[] reordered = new Slot[current.length];
+        for (int i = 0; i < order.length; i++) {
+            Slot slot = current[order[i]];
+            slot.evaluated >>= 1;
+            slot.rejected >>= 1;
+            reordered[i] = slot;
+        }
+        slots = reordered;
+    }
+}
@@ -0,0 +1,198 @@
+package net.sortcraft;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Turns a category's filter rules into a generated hidden class, so they run as one
+ * straight-line method instead of a loop of interface calls.
+ *
+ * <p>Every plain rule becomes a direct call through a final field typed with the rule's own
+ * class, so each call site in the generated method sees exactly one receiver type.
+ * {@code all_of}, {@code any_of} and negation are compiled into branches rather than calls.
+ * Rules run in static cost order. Rules whose class can't be named from generated code (hidden
+ * classes, other packages) are called through {@link FilterRule}.
+ *
+ * <p>Uses the ASM library that Fabric and NeoForge ship at runtime.
+ */
+final class FilterCodegen {
+    private FilterCodegen() {}
+
+    /**
+     * Implemented by the generated classes.
+     */
+    interface Program {
+        boolean matches(FilterInput input);
+    }
+
+    private static final String CLASS_NAME = "net/sortcraft/GeneratedFilter";
+    private static final String PROGRAM = Type.getInternalName(Program.class);
+    private static final String FILTER_RULE = Type.getInternalName(FilterRule.class);
+    private static final String FILTER_INPUT = Type.getInternalName(FilterInput.class);
+    private static final String MATCHES_DESC = "(L" + FILTER_INPUT + ";)Z";
+    private static final Comparator<FilterRule> BY_COST = Comparator.comparingInt(FilterRule::cost);
+
+    /** Rules called from the generated method, one field each, with the type each field is declared as. */
+    private static final class Leaves {
+        final List<FilterRule> rules = new ArrayList<>();
+        final List<String> owners = new ArrayList<>();
+    }
+
+    /**
+     * Generates a program matching when every rule matches, with rules in the given order.
+     *
+     * @throws ReflectiveOperationException if the generated class can't be defined or created
+     */
+    static Program generate(List<FilterRule> rules) throws ReflectiveOperationException {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+            // Frames only merge this class and FilterInput, so no class needs to be loaded here
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(V17, ACC_FINAL | ACC_SUPER, CLASS_NAME, null, "java/lang/Object", new String[]{PROGRAM});
+
+        Leaves leaves = new Leaves();
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "matches", MATCHES_DESC, null, null);
+        mv.visitCode();
+        Label rejected = new Label();
+        emitAll(mv, rules, rejected, false, leaves);
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(IRETURN);
+        mv.visitLabel(rejected);
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        for (int i = 0; i < leaves.rules.size(); i++) {
+            cw.visitField(ACC_PRIVATE | ACC_FINAL, "r" + i, "L" + leaves.owners.get(i) + ";", null, null).visitEnd();
+        }
+        emitConstructor(cw, leaves);
+        cw.visitEnd();
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(cw.toByteArray(), true);
+        MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Object[].class));
+        try {
+            return (Program) constructor.invoke(leaves.rules.toArray());
+        } catch (Throwable e) {
+            throw new ReflectiveOperationException("Failed to create generated filter", e);
+        }
+    }
+
+    private static void emitConstructor(ClassWriter cw, Leaves leaves) {
+        MethodVisitor mv = cw.visitMethod(0, "<init>", "([Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        for (int i = 0; i < leaves.rules.size(); i++) {
+            String owner = leaves.owners.get(i);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(AALOAD);
+            mv.visitTypeInsn(CHECKCAST, owner);
+            mv.visitFieldInsn(PUTFIELD, CLASS_NAME, "r" + i, "L" + owner + ";");
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Emits a rule as a conditional jump: to {@code target} if the rule's result equals
+     * {@code jumpIf}, falling through otherwise.
+     */
+    private static void emit(MethodVisitor mv, FilterRule rule, Label target, boolean jumpIf, Leaves leaves) {
+        if (rule instanceof AllOfFilterRule all) {
+            List<FilterRule> children = new ArrayList<>(all.children());
+            children.sort(BY_COST);
+            Label skip = emitEmptyCheck(mv, target, jumpIf);
+            emitAll(mv, children, target, jumpIf, leaves);
+            if (skip != null) mv.visitLabel(skip);
+        } else if (rule instanceof AnyOfFilterRule any) {
+            Label skip = emitEmptyCheck(mv, target, jumpIf);
+            emitAny(mv, any.children(), target, jumpIf, leaves);
+            if (skip != null) mv.visitLabel(skip);
+        } else if (rule instanceof NegatedFilterRule negated) {
+            Label skip = emitEmptyCheck(mv, target, jumpIf);
+            emit(mv, negated.inner(), target, !jumpIf, leaves);
+            if (skip != null) mv.visitLabel(skip);
+        } else {
+            emitCall(mv, rule, leaves);
+            mv.visitJumpInsn(jumpIf ? IFNE : IFEQ, target);
+        }
+    }
+
+    /**
+     * Emits the check that makes groups and negations, like their rule classes, never match an
+     * empty stack. Returns the label to place after the rule, or null if there is none.
+     */
+    private static Label emitEmptyCheck(MethodVisitor mv, Label target, boolean jumpIf) {
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, FILTER_INPUT, "isEmpty", "()Z", false);
+        if (!jumpIf) {
+            mv.visitJumpInsn(IFNE, target);
+            return null;
+        }
+        Label skip = new Label();
+        mv.visitJumpInsn(IFNE, skip);
+        return skip;
+    }
+
+    private static void emitAll(MethodVisitor mv, List<FilterRule> rules, Label target, boolean jumpIf, Leaves leaves) {
+        if (!jumpIf) {
+            for (FilterRule rule : rules) emit(mv, rule, target, false, leaves);
+            return;
+        }
+        Label skip = new Label();
+        for (int i = 0; i < rules.size() - 1; i++) emit(mv, rules.get(i), skip, false, leaves);
+        emit(mv, rules.get(rules.size() - 1), target, true, leaves);
+        mv.visitLabel(skip);
+    }
+
+    private static void emitAny(MethodVisitor mv, List<FilterRule> rules, Label target, boolean jumpIf, Leaves leaves) {
+        if (jumpIf) {
+            for (FilterRule rule : rules) emit(mv, rule, target, true, leaves);
+            return;
+        }
+        Label skip = new Label();
+        for (int i = 0; i < rules.size() - 1; i++) emit(mv, rules.get(i), skip, true, leaves);
+        emit(mv, rules.get(rules.size() - 1), target, false, leaves);
+        mv.visitLabel(skip);
+    }
+
+    private static void emitCall(MethodVisitor mv, FilterRule rule, Leaves leaves) {
+        int index = leaves.rules.size();
+        String owner = isNameable(rule.getClass()) ? Type.getInternalName(rule.getClass()) : FILTER_RULE;
+        leaves.rules.add(rule);
+        leaves.owners.add(owner);
+
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, CLASS_NAME, "r" + index, "L" + owner + ";");
+        mv.visitVarInsn(ALOAD, 1);
+        boolean viaInterface = owner.equals(FILTER_RULE);
+        mv.visitMethodInsn(viaInterface ? INVOKEINTERFACE : INVOKEVIRTUAL, owner, "matches", MATCHES_DESC, viaInterface);
+    }
+
+    /**
+     * Returns true if generated code in this package can refer to the class by name.
+     */
+    private static boolean isNameable(Class<?> type) {
+        return !type.isHidden()
+                && type.getClassLoader() == FilterCodegen.class.getClassLoader()
+                && type.getPackageName().equals(FilterCodegen.class.getPackageName());
+    }
+}
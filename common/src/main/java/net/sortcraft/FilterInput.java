@@ -0,0 +1,94 @@
+package net.sortcraft;
+
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.enchantment.ItemEnchantments;
+
+/**
+ * Per-stack view handed to filter rules, so component reads shared by several rules
+ * (enchantments, custom name) happen at most once per stack.
+ *
+ * <p>Instances are reused: call {@link #reset(ItemStack)} before matching a new stack.
+ * Not thread-safe.
+ */
+public final class FilterInput {
+    private ItemStack stack = ItemStack.EMPTY;
+    private boolean enchantmentsRead;
+    private ItemEnchantments enchantments;
+    private ItemEnchantments storedEnchantments;
+    private boolean customNameRead;
+    private Component customName;
+    private String hoverName;
+
+    /**
+     * Creates a view of a single stack.
+     */
+    public static FilterInput of(ItemStack stack) {
+        return new FilterInput().reset(stack);
+    }
+
+    /**
+     * Points this view at a new stack and forgets any values read from the previous one.
+     */
+    public FilterInput reset(ItemStack stack) {
+        this.stack = stack;
+        this.enchantmentsRead = false;
+        this.enchantments = null;
+        this.storedEnchantments = null;
+        this.customNameRead = false;
+        this.customName = null;
+        this.hoverName = null;
+        return this;
+    }
+
+    public ItemStack stack() {
+        return stack;
+    }
+
+    public boolean isEmpty() {
+        return stack.isEmpty();
+    }
+
+    /**
+     * Gets the stack's {@link DataComponents#ENCHANTMENTS}, or null if it has none.
+     */
+    public ItemEnchantments enchantments() {
+        readEnchantments();
+        return enchantments;
+    }
+
+    /**
+     * Gets the stack's {@link DataComponents#STORED_ENCHANTMENTS}, or null if it has none.
+     */
+    public ItemEnchantments storedEnchantments() {
+        readEnchantments();
+        return storedEnchantments;
+    }
+
+    /**
+     * Gets the stack's {@link DataComponents#CUSTOM_NAME}, or null if it has none.
+     */
+    public Component customName() {
+        if (!customNameRead) {
+            customName = stack.get(DataComponents.CUSTOM_NAME);
+            customNameRead = true;
+        }
+        return customName;
+    }
+
+    /**
+     * Gets the stack's hover name flattened to a string.
+     */
+    public String hoverName() {
+        if (hoverName == null) hoverName = stack.getHoverName().getString();
+        return hoverName;
+    }
+
+    private void readEnchantments() {
+        if (enchantmentsRead) return;
+        enchantments = stack.get(DataComponents.ENCHANTMENTS);
+        storedEnchantments = stack.get(DataComponents.STORED_ENCHANTMENTS);
+        enchantmentsRead = true;
+    }
+}
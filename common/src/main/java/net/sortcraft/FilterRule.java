@@ -7,5 +7,19 @@ import net.minecraft.world.item.ItemStack;
  */
 public interface FilterRule {
     boolean matches(ItemStack stack);
-}
 
+    /**
+     * Matches against a shared per-stack view. Rules that read components should
+     * override this to use the view's cached reads.
+     */
+    default boolean matches(FilterInput input) {
+        return matches(input.stack());
+    }
+
+    /**
+     * Relative cost of evaluating this rule; cheaper rules run first in a {@link CompiledFilter}.
+     */
+    default int cost() {
+        return CompiledFilter.COST_DEFAULT;
+    }
+}
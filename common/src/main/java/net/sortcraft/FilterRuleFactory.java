@@ -2,6 +2,8 @@ package net.sortcraft;
 
 import net.minecraft.core.RegistryAccess;
 
+import java.util.List;
+
 /**
  * Factory for creating FilterRule instances from YAML configuration.
  */
@@ -25,5 +27,21 @@ public final class FilterRuleFactory {
         // Delegate to Filters class for actual implementation
         return Filters.createFilterRule(registries, key, value);
     }
+
+    /**
+     * Creates FilterRules from a YAML {@code filters} list.
+     *
+     * <p>Each entry is a map of filter key to value. Besides the plain filters, the keys
+     * {@code any_of}, {@code all_of} and {@code not} take a nested filter list, and may
+     * themselves be negated with {@code !}.
+     *
+     * @param registries the registry access (can be null for filters that don't need it)
+     * @param filters the parsed YAML list
+     * @return the created rules, one per map entry
+     * @throws IllegalArgumentException if any filter is invalid
+     */
+    public static List<FilterRule> fromYamlList(RegistryAccess registries, List<?> filters) {
+        return Filters.createFilterRules(registries, filters);
+    }
 }
 
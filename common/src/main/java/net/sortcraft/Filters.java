@@ -2,7 +2,6 @@ package net.sortcraft;
 
 import net.minecraft.core.Holder;
 import net.minecraft.core.RegistryAccess;
-import net.minecraft.core.component.DataComponents;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.ItemStack;
@@ -32,6 +31,10 @@ final class Filters {
      * @return the created FilterRule
      */
     static FilterRule createFilterRule(RegistryAccess registries, String key, String value) {
+        if (isCompositeKey(key)) {
+            throw new IllegalArgumentException("Filter '" + key + "' requires a list of filters");
+        }
+
         if (key.startsWith("!")) {
             key = key.substring(1);
             return new NegatedFilterRule(createFilterRule(registries, key, value));
@@ -69,6 +72,147 @@ final class Filters {
                 throw new IllegalArgumentException("Unknown filter key: " + key);
         };
     }
+
+    /**
+     * Creates a filter rule from a parsed YAML value, which may be a nested filter list
+     * for the composite keys {@code any_of}, {@code all_of} and {@code not}.
+     * Called by FilterRuleFactory.
+     */
+    static FilterRule createFilterRuleNode(RegistryAccess registries, String key, Object value) {
+        if (key.startsWith("!")) {
+            return new NegatedFilterRule(createFilterRuleNode(registries, key.substring(1), value));
+        }
+        if (!isCompositeKey(key)) {
+            return createFilterRule(registries, key, value != null ? String.valueOf(value) : null);
+        }
+
+        List<FilterRule> children;
+        if (value instanceof List<?> list) {
+            children = createFilterRules(registries, list);
+        } else if (value instanceof Map<?, ?> map) {
+            children = createFilterRules(registries, List.of(map));
+        } else {
+            throw new IllegalArgumentException("Filter '" + key + "' requires a list of filters");
+        }
+        if (children.isEmpty()) {
+            throw new IllegalArgumentException("Filter '" + key + "' requires at least one filter");
+        }
+
+        return switch (key.toLowerCase()) {
+            case "any_of" -> new AnyOfFilterRule(children);
+            case "all_of" -> new AllOfFilterRule(children);
+            default -> new NegatedFilterRule(new AllOfFilterRule(children)); // not
+        };
+    }
+
+    /**
+     * Creates filter rules from a YAML filter list of single- or multi-key maps.
+     * Non-map entries are skipped.
+     */
+    static List<FilterRule> createFilterRules(RegistryAccess registries, List<?> filters) {
+        List<FilterRule> rules = new ArrayList<>();
+        for (Object filterRaw : filters) {
+            if (filterRaw instanceof Map<?, ?> filterMap) {
+                for (Map.Entry<?, ?> entry : filterMap.entrySet()) {
+                    rules.add(createFilterRuleNode(registries, String.valueOf(entry.getKey()), entry.getValue()));
+                }
+            }
+        }
+        return rules;
+    }
+
+    private static boolean isCompositeKey(String key) {
+        String lower = key.toLowerCase();
+        return lower.equals("any_of") || lower.equals("all_of") || lower.equals("not");
+    }
+}
+
+/**
+ * Matches when every nested rule matches. Nested rules run cheapest first.
+ */
+class AllOfFilterRule implements FilterRule {
+  private final List<FilterRule> children;
+  private final CompiledFilter rules;
+  private final int cost;
+
+  public AllOfFilterRule(List<FilterRule> rules) {
+    this.children = List.copyOf(rules);
+    // Never generated on its own; a generated parent compiles the children inline
+    this.rules = CompiledFilter.compile(rules, false);
+    this.cost = rules.stream().mapToInt(FilterRule::cost).sum();
+  }
+
+  List<FilterRule> children() {
+    return children;
+  }
+
+  @Override
+  public boolean matches(ItemStack stack) {
+    if (stack == null || stack.isEmpty()) return false;
+    return matches(FilterInput.of(stack));
+  }
+
+  @Override
+  public boolean matches(FilterInput input) {
+    if (input.isEmpty()) return false;
+    return rules.matches(input);
+  }
+
+  @Override
+  public int cost() {
+    return cost;
+  }
+
+  @Override
+  public String toString() {
+    return "all_of" + rules.getStats().stream().map(CompiledFilter.RuleStats::rule).toList();
+  }
+}
+
+/**
+ * Matches when any nested rule matches. Nested rules run cheapest first.
+ */
+class AnyOfFilterRule implements FilterRule {
+  private final FilterRule[] rules;
+  private final int cost;
+
+  public AnyOfFilterRule(List<FilterRule> rules) {
+    this.rules = rules.toArray(new FilterRule[0]);
+    Arrays.sort(this.rules, Comparator.comparingInt(FilterRule::cost));
+    this.cost = rules.stream().mapToInt(FilterRule::cost).sum();
+  }
+
+  /**
+   * Returns the nested rules, cheapest first.
+   */
+  List<FilterRule> children() {
+    return List.of(rules);
+  }
+
+  @Override
+  public boolean matches(ItemStack stack) {
+    if (stack == null || stack.isEmpty()) return false;
+    return matches(FilterInput.of(stack));
+  }
+
+  @Override
+  public boolean matches(FilterInput input) {
+    if (input.isEmpty()) return false;
+    for (FilterRule rule : rules) {
+      if (rule.matches(input)) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public int cost() {
+    return cost;
+  }
+
+  @Override
+  public String toString() {
+    return "any_of" + Arrays.toString(rules);
+  }
 }
 
 class NegatedFilterRule implements FilterRule {
@@ -78,11 +222,31 @@ class NegatedFilterRule implements FilterRule {
       this.inner = inner;
   }
 
+  FilterRule inner() {
+      return inner;
+  }
+
   @Override
   public boolean matches(ItemStack stack) {
       if (stack == null || stack.isEmpty()) return false;
       return !inner.matches(stack);
   }
+
+  @Override
+  public boolean matches(FilterInput input) {
+      if (input.stack().isEmpty()) return false;
+      return !inner.matches(input);
+  }
+
+  @Override
+  public int cost() {
+      return inner.cost();
+  }
+
+  @Override
+  public String toString() {
+      return "!" + inner;
+  }
 }
 
 class NameFilterRule implements FilterRule {
@@ -106,13 +270,28 @@ class NameFilterRule implements FilterRule {
 
   @Override
   public boolean matches(ItemStack stack) {
-    if (stack == null || stack.isEmpty()) return false;
-    Component name = stack.get(DataComponents.CUSTOM_NAME);
+    if (stack == null) return false;
+    return matches(FilterInput.of(stack));
+  }
+
+  @Override
+  public boolean matches(FilterInput input) {
+    if (input.stack().isEmpty()) return false;
+    Component name = input.customName();
     if (name == null) return false;
     else if (matchType == MatchType.ANY) return true;
 
-    String displayName = stack.getHoverName().getString();
-    return displayName.equalsIgnoreCase(expectedName);
+    return input.hoverName().equalsIgnoreCase(expectedName);
+  }
+
+  @Override
+  public int cost() {
+    return CompiledFilter.COST_CUSTOM_NAME;
+  }
+
+  @Override
+  public String toString() {
+    return "custom_name: " + (matchType == MatchType.ANY ? "*" : expectedName);
   }
 }
 
@@ -125,9 +304,11 @@ class EnchantmentFilterRule implements FilterRule {
   }
   private final MatchType matchType;
   private final Enchantment singleEnchantment; // Only used if matching a specific enchantment
+  private final String configValue;
 
   public EnchantmentFilterRule(String configValue, net.minecraft.core.RegistryAccess registries) {
     configValue = configValue.toLowerCase();
+    this.configValue = configValue;
     switch(configValue) {
       case "*":
         matchType = MatchType.ANY;
@@ -153,41 +334,50 @@ class EnchantmentFilterRule implements FilterRule {
 
   @Override
   public boolean matches(ItemStack stack) {
-    if (stack == null || stack.isEmpty()) return false;
-    // Get both ENCHANTMENTS and STORED_ENCHANTMENTS
-    ItemEnchantments enchantmentsComponent = stack.get(DataComponents.ENCHANTMENTS);
-    ItemEnchantments storedEnchantmentsComponent = stack.get(DataComponents.STORED_ENCHANTMENTS);
+    if (stack == null) return false;
+    return matches(FilterInput.of(stack));
+  }
 
-    List<ItemEnchantments> components = new ArrayList<>();
-    if (enchantmentsComponent != null) components.add(enchantmentsComponent);
-    if (storedEnchantmentsComponent != null) components.add(storedEnchantmentsComponent);
-    if (components.isEmpty()) return false;
+  @Override
+  public boolean matches(FilterInput input) {
+    if (input.stack().isEmpty()) return false;
+    // Check both ENCHANTMENTS and STORED_ENCHANTMENTS
+    ItemEnchantments enchantmentsComponent = input.enchantments();
+    ItemEnchantments storedEnchantmentsComponent = input.storedEnchantments();
+    if (enchantmentsComponent == null && storedEnchantmentsComponent == null) return false;
 
     return switch (matchType) {
       case ANY -> true;
-      case MAX -> {
-        for (ItemEnchantments component : components) {
-          if (component != null) {
-            for (Holder<Enchantment> entry : component.keySet()) {
-              int level = component.getLevel(entry);
-              if (level == entry.value().getMaxLevel()) yield true;
-            }
-          }
-        }
-        yield false;
-      }
-      case SINGLE -> {
-        for (ItemEnchantments component : components) {
-          for (Holder<Enchantment> entry : component.keySet()) {
-            if (entry.value().equals(singleEnchantment)) {
-              yield true;
-            }
-          }
-        }
-        yield false;
-      }
+      case MAX -> hasMaxLevel(enchantmentsComponent) || hasMaxLevel(storedEnchantmentsComponent);
+      case SINGLE -> hasSingle(enchantmentsComponent) || hasSingle(storedEnchantmentsComponent);
     };
   }
+
+  @Override
+  public int cost() {
+    return CompiledFilter.COST_ENCHANTMENT;
+  }
+
+  @Override
+  public String toString() {
+    return "enchantment: " + configValue;
+  }
+
+  private static boolean hasMaxLevel(ItemEnchantments component) {
+    if (component == null) return false;
+    for (Holder<Enchantment> entry : component.keySet()) {
+      if (component.getLevel(entry) == entry.value().getMaxLevel()) return true;
+    }
+    return false;
+  }
+
+  private boolean hasSingle(ItemEnchantments component) {
+    if (component == null) return false;
+    for (Holder<Enchantment> entry : component.keySet()) {
+      if (entry.value().equals(singleEnchantment)) return true;
+    }
+    return false;
+  }
 }
 
 
@@ -196,6 +386,16 @@ class StackableFilterRule implements FilterRule {
   public boolean matches(ItemStack stack) {
     return stack != null && !stack.isEmpty() && stack.getItem().getDefaultMaxStackSize() != 1;
   }
+
+  @Override
+  public int cost() {
+    return CompiledFilter.COST_STACKABLE;
+  }
+
+  @Override
+  public String toString() {
+    return "stackable";
+  }
 }
 
 /**
@@ -219,6 +419,7 @@ class DurabilityFilterRule implements FilterRule {
     private final MatchType matchType;
     private final ComparisonOperator operator;
     private final int threshold;
+    private final String expression;
 
     enum MatchType {
         ANY_DAMAGEABLE,  // "*" - matches any item that has durability
@@ -260,6 +461,7 @@ class DurabilityFilterRule implements FilterRule {
 
     public DurabilityFilterRule(String expression) {
         expression = expression.trim();
+        this.expression = expression;
 
         if (expression.equals("*")) {
             this.matchType = MatchType.ANY_DAMAGEABLE;
@@ -314,5 +516,15 @@ class DurabilityFilterRule implements FilterRule {
 
         return operator.test(durabilityPercent, threshold);
     }
+
+    @Override
+    public int cost() {
+        return CompiledFilter.COST_DURABILITY;
+    }
+
+    @Override
+    public String toString() {
+        return "durability: " + expression;
+    }
 }
 
@@ -1,10 +1,13 @@
 package net.sortcraft;
 
+import dev.architectury.event.EventResult;
+import dev.architectury.event.events.common.BlockEvent;
 import dev.architectury.event.events.common.CommandRegistrationEvent;
 import dev.architectury.event.events.common.InteractionEvent;
 import dev.architectury.event.events.common.LifecycleEvent;
 import dev.architectury.event.events.common.TickEvent;
 import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionHand;
@@ -18,7 +21,13 @@ import net.sortcraft.command.CommandHandler;
 import net.sortcraft.command.SortInputCommand;
 import net.sortcraft.compat.EventHelper;
 import net.sortcraft.config.ConfigManager;
+import net.sortcraft.container.ChestStackCache;
+import net.sortcraft.container.ContainerHelper;
+import net.sortcraft.container.SignIndex;
 import net.sortcraft.highlight.ChestHighlighter;
+import net.sortcraft.sorting.AutoSorter;
+import net.sortcraft.sorting.InputSlotTracker;
+import net.sortcraft.sorting.SortJobScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,24 +40,50 @@ public class Sortcraft {
     private static final Logger LOGGER = LoggerFactory.getLogger(MODID);
 
     public static void init() {
-        // Server starting: load configuration and categories
+        // Server starting: load configuration, and start loading categories in the background
         LifecycleEvent.SERVER_STARTING.register(server -> {
             ConfigManager.loadConfig();
-            CategoryLoader.loadCategories(server);
-            CategoryLoader.flattenCategories();
+            CategoryLoader.startLoading(server);
         });
 
         // Server stopping: clean up static state (important for integrated server / single-player)
         LifecycleEvent.SERVER_STOPPING.register(server -> {
+            SortJobScheduler.clearAll();
+            AutoSorter.saveAndClearAll(server.getAllLevels());
+            InputSlotTracker.clearAll();
             SortAuditLogger.shutdown();
+            SignIndex.saveAndClearAll(server.getAllLevels());
+            ChestStackCache.clearAll();
             CategoryLoader.clear();
             ChestHighlighter.clearAll(server);
             LOGGER.debug("Server stopping - cleared Sortcraft static state");
         });
 
+        // Persist sign indexes and automatic input chests alongside the world
+        LifecycleEvent.SERVER_LEVEL_SAVE.register(SignIndex::save);
+        LifecycleEvent.SERVER_LEVEL_SAVE.register(AutoSorter::save);
+
+        // Keep sign indexes and cached chest stacks current as blocks are placed and broken
+        BlockEvent.PLACE.register((level, pos, state, placer) -> {
+            SignIndex.markChanged(level, pos);
+            ChestStackCache.markChanged(level, pos);
+            return EventResult.pass();
+        });
+        BlockEvent.BREAK.register((level, pos, state, player, xp) -> {
+            SignIndex.markChanged(level, pos);
+            ChestStackCache.markChanged(level, pos);
+            InputSlotTracker.markChanged(level, pos);
+            return EventResult.pass();
+        });
+
         // Tick handler to manage highlight entity lifetime
         TickEvent.SERVER_POST.register(ChestHighlighter::tick);
 
+        // Sort automatic input chests that have enough waiting, then start queued sorts and
+        // continue ones that didn't fit in the tick they were started in
+        TickEvent.SERVER_POST.register(AutoSorter::tick);
+        TickEvent.SERVER_POST.register(SortJobScheduler::tick);
+
         // Register commands
         CommandRegistrationEvent.EVENT.register((dispatcher, registryAccess, environment) -> {
             CommandHandler.register(dispatcher);
@@ -67,6 +102,16 @@ public class Sortcraft {
             if (!(be instanceof SignBlockEntity signBe)) return EventHelper.pass();
 
             if (findTextOnSign(signBe, CommandHandler.getInputSignText()) != null) {
+                // An [auto] input sign is watched from now on
+                AutoSorter.watch(world, signBe);
+
+                // Clicking again while this player's sort of the chest is pending does nothing
+                BlockPos chestPos = ContainerHelper.getAttachedChestPos(pos, state, world);
+                if (chestPos != null && SortJobScheduler.isPending(
+                        SortJobScheduler.InputKey.of(world, chestPos, false), serverPlayer.getUUID())) {
+                    return EventHelper.success();
+                }
+
                 CommandSourceStack source = serverPlayer.createCommandSourceStack();
                 try {
                     SortInputCommand.execute(source, false);
@@ -0,0 +1,218 @@
+package net.sortcraft.category;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.sortcraft.CompiledFilter;
+import net.sortcraft.FilterRuleFactory;
+import net.sortcraft.compat.RegistryHelper;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Binary cache of compiled categories, so a restart with unchanged category files and
+ * registries skips YAML parsing, regex and tag expansion, and flattening.
+ *
+ * <p>The file starts with a key derived from the category files' content hashes and a
+ * fingerprint of the item registry and item tags, and is only used when the key matches.
+ * Items are stored by raw registry id, which the fingerprint pins down. Filters are stored
+ * as their YAML source and re-created on load, since they can reference data-driven
+ * registries such as enchantments. The file is read in one go and never held open, so it can
+ * be replaced while the server runs on any platform.
+ */
+public final class CategoryCache {
+    private CategoryCache() {}
+
+    public static final String FILE_NAME = "categories.cache";
+    private static final int MAGIC = 0x53434343; // "SCCC"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Hashes the item registry (ids in raw id order) and the members of every item tag.
+     */
+    public static String registryFingerprint() {
+        MessageDigest digest = sha256();
+        for (Item item : BuiltInRegistries.ITEM) {
+            update(digest, BuiltInRegistries.ITEM.getKey(item).toString());
+        }
+
+        List<TagKey<Item>> tags = new ArrayList<>(RegistryHelper.getItemTagKeys());
+        tags.sort(Comparator.comparing(tag -> tag.location().toString()));
+        ByteBuffer rawId = ByteBuffer.allocate(Integer.BYTES);
+        for (TagKey<Item> tag : tags) {
+            update(digest, "#" + tag.location());
+            List<Holder<Item>> holders = RegistryHelper.getItemTagOrNull(tag);
+            if (holders == null) continue;
+            for (Holder<Item> holder : holders) {
+                digest.update(rawId.clear().putInt(BuiltInRegistries.ITEM.getId(holder.value())).flip());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Builds the cache key from the content of every category file in a directory, including
+     * files that fail to parse, and a registry fingerprint. Reading and writing the cache must
+     * both use this, so the keys agree on which files count.
+     *
+     * @throws IOException if the directory or a file can't be read
+     */
+    public static String cacheKey(Path categoriesDir, String registryFingerprint) throws IOException {
+        Map<Path, String> fileHashes = new TreeMap<>();
+        if (Files.exists(categoriesDir)) {
+            for (Path yamlFile : CategoryLoader.listCategoryFiles(categoriesDir)) {
+                fileHashes.put(yamlFile, CategoryLoader.hashContent(Files.readAllBytes(yamlFile)));
+            }
+        }
+        return cacheKey(fileHashes, registryFingerprint);
+    }
+
+    /**
+     * Builds the cache key from the category files' content hashes (in load order) and a registry fingerprint.
+     */
+    private static String cacheKey(Map<Path, String> fileHashes, String registryFingerprint) {
+        MessageDigest digest = sha256();
+        update(digest, Integer.toString(FORMAT_VERSION));
+        for (Map.Entry<Path, String> entry : fileHashes.entrySet()) {
+            update(digest, entry.getKey().getFileName().toString());
+            update(digest, entry.getValue());
+        }
+        update(digest, registryFingerprint);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Reads cached categories, already flattened and with compiled filters.
+     *
+     * @param path The cache file
+     * @param key The expected cache key
+     * @param registries Registry access used to re-create filters
+     * @return The categories keyed by name, or null if there is no cache or its key doesn't match
+     * @throws IOException if the file can't be read or is corrupt
+     */
+    public static Map<String, CategoryNode> read(Path path, String key, RegistryAccess registries) throws IOException {
+        if (!Files.exists(path)) return null;
+        try {
+            // Not memory-mapped: a mapping stays open until garbage collected, which blocks replacing the file on Windows
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION) return null;
+            if (!key.equals(readString(buf))) return null;
+
+            int categoryCount = buf.getInt();
+            Map<String, CategoryNode> categories = new HashMap<>(categoryCount * 2);
+            Yaml yaml = new Yaml();
+            for (int i = 0; i < categoryCount; i++) {
+                CategoryNode node = new CategoryNode(readString(buf));
+                node.priority = buf.getInt();
+                int includeCount = buf.getInt();
+                for (int j = 0; j < includeCount; j++) node.includes.add(readString(buf));
+                String filterSource = readString(buf);
+                if (!filterSource.isEmpty()) {
+                    node.filters.addAll(FilterRuleFactory.fromYamlList(registries, (List<?>) yaml.load(filterSource)));
+                }
+                node.compiledFilter = CompiledFilter.compile(node.filters);
+                readItems(buf, node.itemIds);
+                Set<ResourceLocation> flattened = new HashSet<>();
+                readItems(buf, flattened);
+                node.flattenedItemIds = flattened;
+                categories.put(node.name, node);
+            }
+            return categories;
+        } catch (BufferUnderflowException | NegativeArraySizeException | IllegalArgumentException | ClassCastException err) {
+            throw new IOException("Corrupt or outdated category cache " + path, err);
+        }
+    }
+
+    /**
+     * Writes flattened categories to the cache, replacing any existing file.
+     *
+     * @param path The cache file
+     * @param key The cache key to store
+     * @param categories The flattened categories
+     * @param filterSources Each category's {@code filters} list as configured, by category name
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path path, String key, Collection<CategoryNode> categories,
+                      Map<String, Object> filterSources) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Yaml yaml = new Yaml();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, key);
+            out.writeInt(categories.size());
+            for (CategoryNode node : categories) {
+                writeString(out, node.name);
+                out.writeInt(node.priority);
+                out.writeInt(node.includes.size());
+                for (String include : node.includes) writeString(out, include);
+                Object filterSource = filterSources.get(node.name);
+                writeString(out, filterSource != null ? yaml.dump(filterSource) : "");
+                writeItems(out, node.itemIds);
+                writeItems(out, node.flattenedItemIds);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Items not in the registry can never match a stack, so they're left out
+    private static void writeItems(DataOutputStream out, Set<ResourceLocation> itemIds) throws IOException {
+        int[] rawIds = new int[itemIds.size()];
+        int count = 0;
+        for (ResourceLocation itemId : itemIds) {
+            Item item = RegistryHelper.getItemOrNull(itemId);
+            if (item != null) rawIds[count++] = BuiltInRegistries.ITEM.getId(item);
+        }
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) out.writeInt(rawIds[i]);
+    }
+
+    private static void readItems(ByteBuffer buf, Set<ResourceLocation> itemIds) {
+        int count = buf.getInt();
+        for (int i = 0; i < count; i++) {
+            Item item = BuiltInRegistries.ITEM.byId(buf.getInt());
+            itemIds.add(BuiltInRegistries.ITEM.getKey(item));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException("SHA-256 not available", err);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package net.sortcraft.category;
 
+import net.minecraft.core.Holder;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
@@ -8,20 +9,33 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.sortcraft.CompiledFilter;
+import net.sortcraft.FilterInput;
 import net.sortcraft.FilterRuleFactory;
 import net.sortcraft.config.ConfigManager;
+import net.sortcraft.container.ItemKey;
 import net.sortcraft.compat.RegistryHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -40,6 +54,11 @@ import java.util.stream.Stream;
  * <p>Category files are loaded from {@code config/sortcraft/categories/} on server start.
  * Use {@link #loadCategoriesFromYaml(String)} for testing or dynamic category loading.
  *
+ * <p>Loads are built separately and published as an immutable {@link CategorySnapshot}, so
+ * lookups always see one complete set of categories. The synchronous loaders stage categories
+ * until {@link #flattenCategories()} publishes them; {@link #reloadAsync(MinecraftServer)} does
+ * the whole load on a background thread.
+ *
  * @see CategoryNode
  * @see net.sortcraft.FilterRule
  */
@@ -47,28 +66,119 @@ public final class CategoryLoader {
     private CategoryLoader() {}
 
     private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
+    private static final int MAX_PARSE_THREADS = 4;
 
-    private static final Map<String, CategoryNode> categories = new ConcurrentHashMap<>();
-    private static final Map<ResourceLocation, Set<CategoryNode>> itemCategoryMap = new ConcurrentHashMap<>();
+    // The published categories; readers take one volatile read and use that snapshot throughout
+    private static final AtomicReference<CategorySnapshot> SNAPSHOT = new AtomicReference<>(CategorySnapshot.EMPTY);
+    private static final AtomicLong NEXT_VERSION = new AtomicLong();
+    // Startup load still to be waited on by the first lookup, null once it has been
+    private static final AtomicReference<CompletableFuture<CategorySnapshot>> STARTUP_LOAD = new AtomicReference<>();
+    private static volatile LoadStatus loadStatus = LoadStatus.NOT_STARTED;
+    // Load in progress for the synchronous API, published by flattenCategories()
+    private static Staging staging = new Staging();
     private static volatile RegistryAccess currentRegistries;
+    // Reused per thread so filter evaluation shares component reads without allocating
+    private static final ThreadLocal<FilterInput> FILTER_INPUT = ThreadLocal.withInitial(FilterInput::new);
+    // Runs background reloads one at a time, so each one starts from the snapshot the previous one published
+    private static final ExecutorService RELOAD_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sortcraft-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record PendingRegex(Pattern pattern, Set<CategoryNode> categories) {}
+
+    record LoadedFile(String hash, Map<String, Object> data) {}
+
+    private record ParsedFile(String hash, Object data) {}
+
+    /**
+     * Mutable state of one load. Nothing in here is visible to readers until it is
+     * flattened into a {@link CategorySnapshot} and published.
+     */
+    private static final class Staging {
+        final Map<String, CategoryNode> categories = new HashMap<>();
+        // Regex item patterns collected while parsing, expanded together by expandPendingRegexPatterns()
+        final Map<String, PendingRegex> pendingRegexPatterns = new LinkedHashMap<>();
+        // Tag expansions for this load, so a tag shared by several categories is resolved once
+        final Map<TagKey<Item>, List<ResourceLocation>> tagExpansions = new HashMap<>();
+        // Category files loaded from disk, in alphabetical order
+        final Map<Path, LoadedFile> loadedFiles = new TreeMap<>();
+        // CategoryCache.registryFingerprint() when the files were loaded, or null if not loaded from disk
+        String registryFingerprint;
+        RegistryAccess registries;
+    }
+
+    /**
+     * Summary of an incremental reload.
+     *
+     * @param changedFiles Number of category files that were added, changed or removed
+     * @param changedCategories Number of categories that were re-parsed or removed
+     * @param reflattenedCategories Number of categories re-flattened (changed ones plus everything including them)
+     * @param fullReload True if there was no previous load to compare against and everything was reloaded
+     */
+    public record ReloadStats(int changedFiles, int changedCategories, int reflattenedCategories, boolean fullReload) {}
+
+    public enum LoadState { NOT_STARTED, LOADING, LOADED, FAILED }
+
+    /**
+     * Status of the category load started at server start.
+     *
+     * @param state Where the load is
+     * @param fromCache True if the categories were restored from the compiled category cache
+     * @param startNanos {@link System#nanoTime()} when the load started
+     * @param endNanos {@link System#nanoTime()} when the load finished, or 0 while it's running
+     * @param error Message of the failure, or null
+     */
+    public record LoadStatus(LoadState state, boolean fromCache, long startNanos, long endNanos, String error) {
+        static final LoadStatus NOT_STARTED = new LoadStatus(LoadState.NOT_STARTED, false, 0, 0, null);
+
+        /**
+         * Returns how long the load took, or how long it has been running so far.
+         */
+        public long elapsedMillis() {
+            if (state == LoadState.NOT_STARTED) return 0;
+            return ((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos) / 1_000_000;
+        }
+    }
+
+    /**
+     * Returns the currently published categories and lookup tables.
+     * Callers that make several lookups should hold on to one snapshot so they all agree.
+     * Like all lookups, this waits for the startup load if it hasn't finished yet.
+     */
+    public static CategorySnapshot getSnapshot() {
+        return awaitSnapshot();
+    }
+
+    /**
+     * Returns the currently published snapshot without waiting, or null while the startup load
+     * is still running. For callers on the server thread that can do without categories, like
+     * command suggestions.
+     */
+    public static CategorySnapshot getSnapshotIfReady() {
+        CompletableFuture<CategorySnapshot> pending = STARTUP_LOAD.get();
+        if (pending != null && !pending.isDone()) return null;
+        return SNAPSHOT.get();
+    }
 
     /**
      * Returns all loaded categories, keyed by category name.
      *
-     * @return Unmodifiable view of the categories map
+     * @return Unmodifiable map of the published categories
      */
     public static Map<String, CategoryNode> getCategories() {
-        return Collections.unmodifiableMap(categories);
+        return awaitSnapshot().getCategories();
     }
 
     /**
      * Returns the item-to-category mapping built by {@link #flattenCategories()}.
      * Maps each item ID to the set of categories that include it.
      *
-     * @return Unmodifiable view of the map from item ResourceLocation to set of matching CategoryNodes
+     * @return Unmodifiable map from item ResourceLocation to set of matching CategoryNodes
      */
     public static Map<ResourceLocation, Set<CategoryNode>> getItemCategoryMap() {
-        return Collections.unmodifiableMap(itemCategoryMap);
+        return awaitSnapshot().getItemCategoryMap();
     }
 
     /**
@@ -97,14 +207,19 @@ public final class CategoryLoader {
      *
      * <p>After calling this method:
      * <ul>
-     *   <li>All categories are removed</li>
-     *   <li>The item-to-category map is cleared</li>
+     *   <li>The empty snapshot is published, dropping all categories, lookup tables and the match cache</li>
+     *   <li>Any categories staged by the synchronous loaders are discarded</li>
+     *   <li>A background load or reload still in flight will not publish its result,
+     *       and lookups stop waiting for the startup load</li>
      *   <li>The registry access reference is nulled</li>
      * </ul>
      */
     public static void clear() {
-        categories.clear();
-        itemCategoryMap.clear();
+        // A fresh instance, so a reload that started from an earlier empty snapshot can't publish over it
+        SNAPSHOT.set(CategorySnapshot.empty(NEXT_VERSION.incrementAndGet()));
+        STARTUP_LOAD.set(null);
+        loadStatus = LoadStatus.NOT_STARTED;
+        staging = new Staging();
         currentRegistries = null;
     }
 
@@ -120,6 +235,8 @@ public final class CategoryLoader {
      *   priority: 5
      * }</pre>
      *
+     * <p>Categories are staged, and only become visible once {@link #flattenCategories()} publishes them.
+     *
      * @param yamlContent the YAML content to parse
      * @return the number of categories successfully loaded
      * @see #loadCategories(MinecraftServer) for loading from files
@@ -133,7 +250,10 @@ public final class CategoryLoader {
             return 0;
         }
 
-        int count = loadCategoriesFromMap((Map<String, Object>) data, "YAML string");
+        Staging target = staging;
+        target.registries = currentRegistries;
+        int count = loadCategoriesFromMap(target, (Map<String, Object>) data, "YAML string");
+        expandPendingRegexPatterns(target);
         LOGGER.info("Loaded {} categories from YAML string", count);
         return count;
     }
@@ -141,11 +261,12 @@ public final class CategoryLoader {
     /**
      * Shared method to load categories from a parsed YAML map.
      *
+     * @param target the load to add the categories to
      * @param mapRoot the parsed YAML map containing category definitions
      * @param sourceName descriptive name of the source (for logging)
      * @return the number of categories loaded
      */
-    private static int loadCategoriesFromMap(Map<String, Object> mapRoot, String sourceName) {
+    private static int loadCategoriesFromMap(Staging target, Map<String, Object> mapRoot, String sourceName) {
         int count = 0;
         for (Map.Entry<String, Object> entry : mapRoot.entrySet()) {
             String categoryName = entry.getKey();
@@ -154,12 +275,12 @@ public final class CategoryLoader {
                 LOGGER.warn("Category '{}' in {} has a non-map value, skipping", categoryName, sourceName);
                 continue;
             }
-            if (categories.containsKey(categoryName)) {
+            if (target.categories.containsKey(categoryName)) {
                 LOGGER.warn("Duplicate category '{}' in {}, overwriting previous definition", categoryName, sourceName);
             }
-            CategoryNode categoryNode = parseCategory(categoryName, valueRaw);
+            CategoryNode categoryNode = parseCategory(target, categoryName, valueRaw);
             if (categoryNode != null) {
-                categories.put(categoryName, categoryNode);
+                target.categories.put(categoryName, categoryNode);
                 count++;
             }
         }
@@ -176,13 +297,172 @@ public final class CategoryLoader {
      * <p>This method also sets the current registry access from the server, which is required
      * for filters that reference enchantments or other registry objects.
      *
+     * <p>This runs on the calling thread. Use {@link #reloadAsync(MinecraftServer)} to load
+     * and publish categories without blocking the server thread.
+     *
      * @param server The Minecraft server to get registry access from
-     * @see #flattenCategories() Must be called after loading to build the item-to-category map
+     * @see #flattenCategories() Must be called after loading to build and publish the item-to-category map
      */
-    @SuppressWarnings("unchecked")
     public static void loadCategories(MinecraftServer server) {
         currentRegistries = server.registryAccess();
+        Staging target = staging;
+        target.registries = currentRegistries;
+        target.tagExpansions.clear();
+        loadCategoryFiles(target, ConfigManager.getConfigPath("categories"), CategoryCache.registryFingerprint());
+    }
+
+    /**
+     * Starts loading categories on a background thread at server start, using the compiled
+     * category cache in {@code config/sortcraft/} when the category files and the item registry
+     * and tags are unchanged since it was written. On a cache miss the categories are compiled
+     * as usual and the cache is rewritten.
+     *
+     * <p>The server keeps starting while categories load. Category lookups made before the
+     * load finishes wait for it; {@link #getLoadStatus()} reports progress without waiting.
+     *
+     * <p>Categories restored from the cache have no file contents recorded, so the next
+     * {@link #reloadChangedCategoriesAsync(MinecraftServer)} does a full reload.
+     *
+     * @param server The Minecraft server to get registry access from
+     * @return Future completing with the published snapshot, on the reload thread
+     */
+    public static CompletableFuture<CategorySnapshot> startLoading(MinecraftServer server) {
+        RegistryAccess registries = server.registryAccess();
+        return startLoading(registries, () -> compileCategories(registries));
+    }
+
+    /**
+     * Starts loading the category files in a directory on a background thread, like
+     * {@link #startLoading(MinecraftServer)} but without the compiled category cache.
+     * Primarily intended for testing, together with {@link #getLoadStatus()}.
+     *
+     * @param categoriesDir The directory to load {@code .yaml} and {@code .yml} files from
+     * @param registryFingerprint Stands in for {@link CategoryCache#registryFingerprint()}
+     * @param beforeLoad Runs on the load thread before any file is read; an exception fails the load
+     * @return Future completing with the published snapshot, on the reload thread
+     */
+    public static CompletableFuture<CategorySnapshot> startLoading(Path categoriesDir, String registryFingerprint,
+                                                                   Runnable beforeLoad) {
+        RegistryAccess registries = currentRegistries;
+        return startLoading(registries, () -> {
+            beforeLoad.run();
+            Staging target = new Staging();
+            target.registries = registries;
+            loadCategoryFiles(target, categoriesDir, registryFingerprint);
+            return new CompiledCategories(buildSnapshot(target, NEXT_VERSION.incrementAndGet()), false);
+        });
+    }
+
+    private static CompletableFuture<CategorySnapshot> startLoading(RegistryAccess registries,
+                                                                    Supplier<CompiledCategories> compile) {
+        long startNanos = System.nanoTime();
+        loadStatus = new LoadStatus(LoadState.LOADING, false, startNanos, 0, null);
+        CompletableFuture<CategorySnapshot> future = CompletableFuture.supplyAsync(() -> {
+            CategorySnapshot base = SNAPSHOT.get();
+            try {
+                CompiledCategories compiled = compile.get();
+                publish(base, compiled.snapshot(), registries);
+                loadStatus = new LoadStatus(LoadState.LOADED, compiled.fromCache(), startNanos, System.nanoTime(), null);
+                return compiled.snapshot();
+            } catch (RuntimeException err) {
+                LOGGER.error("Failed to load categories", err);
+                loadStatus = new LoadStatus(LoadState.FAILED, false, startNanos, System.nanoTime(), String.valueOf(err.getMessage()));
+                throw err;
+            }
+        }, RELOAD_EXECUTOR);
+        STARTUP_LOAD.set(future);
+        return future;
+    }
+
+    /**
+     * Returns the status of the load started by {@link #startLoading(MinecraftServer)}, without waiting for it.
+     */
+    public static LoadStatus getLoadStatus() {
+        return loadStatus;
+    }
+
+    /**
+     * Gets the published snapshot, first waiting for the startup load if it's still running.
+     */
+    private static CategorySnapshot awaitSnapshot() {
+        CompletableFuture<CategorySnapshot> pending = STARTUP_LOAD.get();
+        if (pending != null) {
+            if (!pending.isDone()) {
+                long startNanos = System.nanoTime();
+                try {
+                    pending.join();
+                } catch (CompletionException | CancellationException err) {
+                    // Already logged by the load; fall through to whatever is published
+                }
+                LOGGER.info("Waited {} ms for categories to finish loading", (System.nanoTime() - startNanos) / 1_000_000);
+            }
+            STARTUP_LOAD.compareAndSet(pending, null);
+        }
+        return SNAPSHOT.get();
+    }
+
+    private record CompiledCategories(CategorySnapshot snapshot, boolean fromCache) {}
+
+    /**
+     * Builds a snapshot from the compiled category cache if it's valid, otherwise from the
+     * category files, rewriting the cache. Nothing is published.
+     */
+    private static CompiledCategories compileCategories(RegistryAccess registries) {
+        Staging target = new Staging();
+        target.registries = registries;
         Path categoriesDir = ConfigManager.getConfigPath("categories");
+        String fingerprint = CategoryCache.registryFingerprint();
+        if (!ConfigManager.isCategoryCacheEnabled()) {
+            loadCategoryFiles(target, categoriesDir, fingerprint);
+            return new CompiledCategories(buildSnapshot(target, NEXT_VERSION.incrementAndGet()), false);
+        }
+
+        Path cacheFile = ConfigManager.getConfigPath(CategoryCache.FILE_NAME);
+        // Hashed before loading, so the key written below describes the same files the categories came from
+        String key = null;
+        try {
+            if (Files.exists(categoriesDir)) {
+                key = CategoryCache.cacheKey(categoriesDir, fingerprint);
+                Map<String, CategoryNode> cached = CategoryCache.read(cacheFile, key, registries);
+                if (cached != null) {
+                    target.categories.putAll(cached);
+                    target.registryFingerprint = fingerprint;
+                    LOGGER.info("Loaded {} categories from cache {}", cached.size(), cacheFile);
+                    return new CompiledCategories(buildSnapshot(target, NEXT_VERSION.incrementAndGet()), true);
+                }
+            }
+        } catch (IOException err) {
+            LOGGER.warn("Could not use category cache {}, rebuilding", cacheFile, err);
+        }
+
+        loadCategoryFiles(target, categoriesDir, fingerprint);
+        CategorySnapshot snapshot = buildSnapshot(target, NEXT_VERSION.incrementAndGet());
+
+        Map<String, Object> filterSources = new HashMap<>();
+        for (Map.Entry<Path, LoadedFile> entry : snapshot.getLoadedFiles().entrySet()) {
+            // Later files override earlier ones, so the last definition wins
+            for (Map.Entry<String, Object> category : entry.getValue().data().entrySet()) {
+                if (!(category.getValue() instanceof Map<?, ?> categoryConf)) continue;
+                if (categoryConf.get("filters") instanceof List<?> filters) {
+                    filterSources.put(category.getKey(), filters);
+                } else {
+                    filterSources.remove(category.getKey());
+                }
+            }
+        }
+        try {
+            // The directory was only just created with an example file
+            if (key == null) key = CategoryCache.cacheKey(categoriesDir, fingerprint);
+            CategoryCache.write(cacheFile, key, snapshot.getCategories().values(), filterSources);
+        } catch (IOException err) {
+            LOGGER.warn("Failed to write category cache {}", cacheFile, err);
+        }
+        return new CompiledCategories(snapshot, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void loadCategoryFiles(Staging target, Path categoriesDir, String registryFingerprint) {
+        target.registryFingerprint = registryFingerprint;
         try {
             if (!Files.exists(categoriesDir)) {
                 Files.createDirectories(categoriesDir);
@@ -195,35 +475,39 @@ public final class CategoryLoader {
                 LOGGER.warn("Categories directory not found, created example at {}", categoriesDir);
             }
 
-            Yaml yaml = new Yaml();
-            List<Path> yamlFiles;
-            try (Stream<Path> paths = Files.list(categoriesDir)) {
-                yamlFiles = paths
-                        .filter(Files::isRegularFile)
-                        .filter(p -> p.toString().endsWith(".yaml") || p.toString().endsWith(".yml"))
-                        .sorted()
-                        .collect(Collectors.toList());
-            }
+            List<Path> yamlFiles = listCategoryFiles(categoriesDir);
+
+            // Parse concurrently, then merge in alphabetical order so later files still override earlier ones
+            List<CompletableFuture<ParsedFile>> parsed = parseYamlFiles(yamlFiles);
+            target.loadedFiles.clear();
 
             int filesLoaded = 0;
-            for (Path yamlFile : yamlFiles) {
-                try (InputStream in = Files.newInputStream(yamlFile)) {
-                    Object data = yaml.load(in);
+            for (int i = 0; i < yamlFiles.size(); i++) {
+                Path yamlFile = yamlFiles.get(i);
+                try {
+                    ParsedFile file = parsed.get(i).join();
+                    Object data = file.data();
                     if (data == null) {
                         LOGGER.debug("Skipping empty/comments-only file: {}", yamlFile.getFileName());
+                        target.loadedFiles.put(yamlFile, new LoadedFile(file.hash(), Map.of()));
                         continue;
                     }
                     if (!(data instanceof Map)) {
                         LOGGER.warn("File '{}' does not contain a map at root level, skipping", yamlFile.getFileName());
+                        target.loadedFiles.put(yamlFile, new LoadedFile(file.hash(), Map.of()));
                         continue;
                     }
-                    loadCategoriesFromMap((Map<String, Object>) data, yamlFile.getFileName().toString());
+                    loadCategoriesFromMap(target, (Map<String, Object>) data, yamlFile.getFileName().toString());
+                    target.loadedFiles.put(yamlFile, new LoadedFile(file.hash(), (Map<String, Object>) data));
                     filesLoaded++;
+                } catch (CompletionException err) {
+                    LOGGER.error("Error loading categories from file: {}", yamlFile.getFileName(), err.getCause());
                 } catch (Exception err) {
                     LOGGER.error("Error loading categories from file: {}", yamlFile.getFileName(), err);
                 }
             }
-            LOGGER.info("Loaded {} categories from {} files in {}", categories.size(), filesLoaded, categoriesDir);
+            expandPendingRegexPatterns(target);
+            LOGGER.info("Loaded {} categories from {} files in {}", target.categories.size(), filesLoaded, categoriesDir);
         } catch (IOException err) {
             LOGGER.error("IO error while loading categories directory", err);
         } catch (Exception err) {
@@ -231,7 +515,62 @@ public final class CategoryLoader {
         }
     }
 
-    private static CategoryNode parseCategory(String categoryName, Object valueRaw) {
+    /**
+     * Lists the {@code .yaml} and {@code .yml} files in a directory in alphabetical order.
+     */
+    static List<Path> listCategoryFiles(Path categoriesDir) throws IOException {
+        try (Stream<Path> paths = Files.list(categoriesDir)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.toString().endsWith(".yaml") || p.toString().endsWith(".yml"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    static String hashContent(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException("SHA-256 not available", err);
+        }
+    }
+
+    /**
+     * Reads, hashes and parses YAML files concurrently on a bounded pool, each with its own {@link Yaml}
+     * instance (SnakeYAML isn't thread-safe). Futures are returned in the same order as the files;
+     * a file that fails to read or parse completes its future exceptionally.
+     * The pool is shut down once the queued files are done.
+     */
+    private static List<CompletableFuture<ParsedFile>> parseYamlFiles(List<Path> yamlFiles) {
+        if (yamlFiles.isEmpty()) return List.of();
+        int threads = Math.min(yamlFiles.size(), Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARSE_THREADS));
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sortcraft-yaml-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<ParsedFile>> futures = new ArrayList<>(yamlFiles.size());
+            for (Path yamlFile : yamlFiles) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        byte[] content = Files.readAllBytes(yamlFile);
+                        Object data = new Yaml().load(new String(content, StandardCharsets.UTF_8));
+                        return new ParsedFile(hashContent(content), data);
+                    } catch (IOException err) {
+                        throw new UncheckedIOException(err);
+                    }
+                }, pool));
+            }
+            return futures;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static CategoryNode parseCategory(Staging target, String categoryName, Object valueRaw) {
         if (categoryName == null || categoryName.isEmpty()) {
             LOGGER.warn("Cannot parse category with null or empty name");
             return null;
@@ -252,7 +591,7 @@ public final class CategoryLoader {
             if (itemPatternsValue instanceof List<?> itemPatterns) {
                 for (var entry : itemPatterns) {
                     if (entry instanceof String pattern) {
-                        expandItemPattern(pattern, categoryName, categoryNode);
+                        expandItemPattern(target, pattern, categoryName, categoryNode);
                     } else {
                         LOGGER.warn("Unsupported item entry type '{}' in category '{}'",
                                 entry.getClass().getSimpleName(), categoryName);
@@ -277,18 +616,11 @@ public final class CategoryLoader {
 
             Object filtersRaw = categoryConf.get("filters");
             if (filtersRaw instanceof List<?> filters) {
-                for (Object filterRaw : filters) {
-                    if (filterRaw instanceof Map<?, ?> filterMap) {
-                        for (Map.Entry<?, ?> entry : filterMap.entrySet()) {
-                            String key = String.valueOf(entry.getKey());
-                            String value = entry.getValue() != null ? String.valueOf(entry.getValue()) : null;
-                            categoryNode.filters.add(FilterRuleFactory.fromYaml(currentRegistries, key, value));
-                        }
-                    }
-                }
+                categoryNode.filters.addAll(FilterRuleFactory.fromYamlList(target.registries, filters));
             } else if (filtersRaw != null) {
                 LOGGER.warn("Category '{}' has unrecognized filter type {}", categoryName, filtersRaw.getClass().getName());
             }
+            categoryNode.compiledFilter = CompiledFilter.compile(categoryNode.filters);
 
             Object priorityRaw = categoryConf.get("priority");
             if (priorityRaw instanceof Integer priority) {
@@ -310,11 +642,12 @@ public final class CategoryLoader {
         }
     }
 
-    private static Set<ResourceLocation> flattenCategory(String categoryName) {
-        return flattenCategory(categoryName, new HashSet<>());
+    private static Set<ResourceLocation> flattenCategory(Map<String, CategoryNode> categories, String categoryName) {
+        return flattenCategory(categories, categoryName, new HashSet<>());
     }
 
-    private static Set<ResourceLocation> flattenCategory(String categoryName, Set<String> visitedCategories) {
+    private static Set<ResourceLocation> flattenCategory(Map<String, CategoryNode> categories, String categoryName,
+                                                         Set<String> visitedCategories) {
         CategoryNode category = categories.get(categoryName);
         if (category == null) throw new IllegalArgumentException("Unknown category: " + categoryName);
 
@@ -333,18 +666,21 @@ public final class CategoryLoader {
                 LOGGER.warn("Category '{}' includes unknown category '{}', skipping", categoryName, childName);
                 continue;
             }
-            items.addAll(flattenCategory(childName, visitedCategories));
+            items.addAll(flattenCategory(categories, childName, visitedCategories));
         }
 
         return items;
     }
 
     /**
-     * Flattens all categories and builds the item-to-category map.
+     * Flattens all staged categories and publishes them.
      *
      * <p>This method resolves all {@code includes} references, expanding each category
      * to contain all items from its included categories (recursively). It also builds
-     * the reverse mapping from item IDs to categories for efficient lookup.
+     * the reverse mapping from item IDs to categories for efficient lookup, and a
+     * priority-ordered, immutable category list per item for {@link #getMatchingCategoriesNoFilter},
+     * both by item ID and by raw registry id. Everything is published together as a new
+     * {@link CategorySnapshot}.
      *
      * <p>Must be called after {@link #loadCategories(MinecraftServer)} and before
      * any sorting operations.
@@ -352,31 +688,343 @@ public final class CategoryLoader {
      * @throws IllegalStateException if a circular include reference is detected
      */
     public static void flattenCategories() {
-        for (String categoryName : categories.keySet()) flattenCategory(categoryName);
+        Staging source = staging;
+        SNAPSHOT.set(buildSnapshot(source, NEXT_VERSION.incrementAndGet()));
+    }
 
+    private static CategorySnapshot buildSnapshot(Staging source, long version) {
+        Map<String, CategoryNode> categories = source.categories;
+        for (String categoryName : categories.keySet()) flattenCategory(categories, categoryName);
+
+        Map<ResourceLocation, Set<CategoryNode>> itemCategoryMap = new HashMap<>();
         for (CategoryNode category : categories.values()) {
             for (ResourceLocation itemId : category.flattenedItemIds)
                 itemCategoryMap.computeIfAbsent(itemId, k -> new HashSet<CategoryNode>()).add(category);
         }
+
+        Map<ResourceLocation, List<CategoryNode>> sorted = new HashMap<>(itemCategoryMap.size() * 2);
+        for (Map.Entry<ResourceLocation, Set<CategoryNode>> entry : itemCategoryMap.entrySet()) {
+            sorted.put(entry.getKey(), sortedCategoryList(entry.getValue()));
+            entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+        }
+        List<CategoryNode>[] byRawId = newCategoryTable(BuiltInRegistries.ITEM.size());
+        for (Map.Entry<ResourceLocation, List<CategoryNode>> entry : sorted.entrySet()) {
+            int rawId = rawItemId(entry.getKey());
+            if (rawId >= 0 && rawId < byRawId.length) byRawId[rawId] = entry.getValue();
+        }
+
+        return new CategorySnapshot(version,
+                Collections.unmodifiableMap(new HashMap<>(categories)),
+                Collections.unmodifiableMap(itemCategoryMap),
+                Collections.unmodifiableMap(sorted),
+                byRawId,
+                Collections.unmodifiableMap(new TreeMap<>(source.loadedFiles)),
+                source.registryFingerprint);
+    }
+
+    private static List<CategoryNode> sortedCategoryList(Set<CategoryNode> categorySet) {
+        CategoryNode[] nodes = categorySet.toArray(new CategoryNode[0]);
+        Arrays.sort(nodes);
+        return List.of(nodes);
+    }
+
+    private static int rawItemId(ResourceLocation itemId) {
+        Item item = RegistryHelper.getItemOrNull(itemId);
+        return item != null ? BuiltInRegistries.ITEM.getId(item) : -1;
+    }
+
+    /**
+     * Publishes a snapshot built on top of {@code base}, unless something else was published
+     * (or categories were cleared) in the meantime.
+     */
+    private static void publish(CategorySnapshot base, CategorySnapshot built, RegistryAccess registries) {
+        if (!SNAPSHOT.compareAndSet(base, built)) {
+            throw new IllegalStateException("Categories changed while reloading, discarding the reload");
+        }
+        currentRegistries = registries;
+    }
+
+    /**
+     * Loads, flattens and publishes all category files on a background thread.
+     *
+     * <p>The new categories are built separately and published with a single reference swap, so
+     * sorting keeps using the previous categories until the reload is complete. Reloads run one
+     * at a time in the order they were requested. If categories are cleared while a reload is
+     * running, its result is discarded and the future completes exceptionally.
+     *
+     * @param server The Minecraft server to get registry access from
+     * @return Future completing with the published snapshot, on the reload thread
+     */
+    public static CompletableFuture<CategorySnapshot> reloadAsync(MinecraftServer server) {
+        RegistryAccess registries = server.registryAccess();
+        return CompletableFuture.supplyAsync(() -> {
+            CategorySnapshot base = SNAPSHOT.get();
+            Staging target = new Staging();
+            target.registries = registries;
+            loadCategoryFiles(target, ConfigManager.getConfigPath("categories"), CategoryCache.registryFingerprint());
+            CategorySnapshot built = buildSnapshot(target, NEXT_VERSION.incrementAndGet());
+            publish(base, built, registries);
+            return built;
+        }, RELOAD_EXECUTOR);
+    }
+
+    /**
+     * Reloads only the category files that changed since the last load from disk, on a background thread.
+     *
+     * <p>Files are compared by content hash. Categories defined in added, changed or removed
+     * files are re-parsed (or dropped), taking the definition from the last file alphabetically
+     * that defines them, just like a full load. Then only those categories and the categories
+     * that include them, directly or transitively, are re-flattened, and the item-to-category
+     * lookups are patched for the affected items. Unchanged categories are shared with the
+     * previous snapshot, and the result is published like {@link #reloadAsync(MinecraftServer)}.
+     *
+     * <p>Does a full reload if the current categories weren't loaded from disk, or if the item
+     * registry or item tags changed since (for example after a datapack {@code /reload}), since
+     * unchanged files can then expand to different items.
+     *
+     * @param server The Minecraft server to get registry access from
+     * @return Future completing with what was reloaded, on the reload thread
+     */
+    public static CompletableFuture<ReloadStats> reloadChangedCategoriesAsync(MinecraftServer server) {
+        RegistryAccess registries = server.registryAccess();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return reloadChangedCategories(SNAPSHOT.get(), registries,
+                        ConfigManager.getConfigPath("categories"), CategoryCache.registryFingerprint());
+            } catch (IOException err) {
+                throw new UncheckedIOException(err);
+            }
+        }, RELOAD_EXECUTOR);
+    }
+
+    /**
+     * Loads and publishes all category files in a directory, on the calling thread.
+     * Primarily intended for testing, together with {@link #reloadChangedCategories(Path, String)}.
+     *
+     * @param categoriesDir The directory to load {@code .yaml} and {@code .yml} files from
+     * @param registryFingerprint Stands in for {@link CategoryCache#registryFingerprint()}
+     * @return The published snapshot
+     */
+    public static CategorySnapshot loadCategoryDirectory(Path categoriesDir, String registryFingerprint) {
+        CategorySnapshot base = SNAPSHOT.get();
+        Staging target = new Staging();
+        target.registries = currentRegistries;
+        loadCategoryFiles(target, categoriesDir, registryFingerprint);
+        CategorySnapshot built = buildSnapshot(target, NEXT_VERSION.incrementAndGet());
+        publish(base, built, currentRegistries);
+        return built;
+    }
+
+    /**
+     * Reloads the category files in a directory that changed since the last load, on the calling
+     * thread, like {@link #reloadChangedCategoriesAsync(MinecraftServer)}.
+     * Primarily intended for testing.
+     *
+     * @param categoriesDir The directory to load {@code .yaml} and {@code .yml} files from
+     * @param registryFingerprint Stands in for {@link CategoryCache#registryFingerprint()}
+     * @return What was reloaded
+     * @throws IOException if the directory or a file can't be read
+     */
+    public static ReloadStats reloadChangedCategories(Path categoriesDir, String registryFingerprint) throws IOException {
+        return reloadChangedCategories(SNAPSHOT.get(), currentRegistries, categoriesDir, registryFingerprint);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReloadStats reloadChangedCategories(CategorySnapshot base, RegistryAccess registries,
+                                                       Path categoriesDir, String fingerprint) throws IOException {
+        Staging target = new Staging();
+        target.registries = registries;
+        boolean registriesChanged = !fingerprint.equals(base.getRegistryFingerprint());
+        if (base.getLoadedFiles().isEmpty() || registriesChanged) {
+            if (registriesChanged && !base.getLoadedFiles().isEmpty()) {
+                LOGGER.info("Items or item tags changed since categories were loaded, reloading all category files");
+            }
+            loadCategoryFiles(target, categoriesDir, fingerprint);
+            publish(base, buildSnapshot(target, NEXT_VERSION.incrementAndGet()), registries);
+            int count = target.categories.size();
+            return new ReloadStats(target.loadedFiles.size(), count, count, true);
+        }
+
+        target.categories.putAll(base.getCategories());
+        target.loadedFiles.putAll(base.getLoadedFiles());
+        target.registryFingerprint = fingerprint;
+        List<Path> yamlFiles = Files.exists(categoriesDir) ? listCategoryFiles(categoriesDir) : List.of();
+
+        // Find added, changed and removed files
+        List<Path> changedFiles = new ArrayList<>();
+        for (Path yamlFile : yamlFiles) {
+            LoadedFile previous = target.loadedFiles.get(yamlFile);
+            if (previous == null || !previous.hash().equals(hashContent(Files.readAllBytes(yamlFile)))) {
+                changedFiles.add(yamlFile);
+            }
+        }
+        Set<Path> removedFiles = new HashSet<>(target.loadedFiles.keySet());
+        removedFiles.removeAll(yamlFiles);
+        if (changedFiles.isEmpty() && removedFiles.isEmpty()) {
+            return new ReloadStats(0, 0, 0, false);
+        }
+
+        // Categories defined by those files, before and after
+        Set<String> changedNames = new LinkedHashSet<>();
+        for (Path removed : removedFiles) {
+            changedNames.addAll(target.loadedFiles.remove(removed).data().keySet());
+        }
+        List<CompletableFuture<ParsedFile>> parsed = parseYamlFiles(changedFiles);
+        for (int i = 0; i < changedFiles.size(); i++) {
+            Path yamlFile = changedFiles.get(i);
+            LoadedFile previous = target.loadedFiles.remove(yamlFile);
+            if (previous != null) changedNames.addAll(previous.data().keySet());
+            try {
+                ParsedFile file = parsed.get(i).join();
+                Map<String, Object> data = Map.of();
+                if (file.data() instanceof Map<?, ?> map) {
+                    data = (Map<String, Object>) map;
+                } else if (file.data() != null) {
+                    LOGGER.warn("File '{}' does not contain a map at root level, skipping", yamlFile.getFileName());
+                }
+                target.loadedFiles.put(yamlFile, new LoadedFile(file.hash(), data));
+                changedNames.addAll(data.keySet());
+            } catch (CompletionException err) {
+                LOGGER.error("Error loading categories from file: {}", yamlFile.getFileName(), err.getCause());
+            }
+        }
+
+        // Re-parse changed categories from the last file that defines them
+        Map<String, CategoryNode> previousNodes = new HashMap<>();
+        for (String name : changedNames) {
+            CategoryNode previous = target.categories.remove(name);
+            if (previous != null) previousNodes.put(name, previous);
+
+            Object definition = null;
+            for (LoadedFile file : target.loadedFiles.values()) {
+                Object value = file.data().get(name);
+                if (value instanceof Map) definition = value;
+            }
+            if (definition == null) continue;
+            CategoryNode categoryNode = parseCategory(target, name, definition);
+            if (categoryNode != null) target.categories.put(name, categoryNode);
+        }
+        expandPendingRegexPatterns(target);
+
+        // Everything that includes a changed category must be re-flattened too
+        Map<String, Set<String>> includedBy = new HashMap<>();
+        for (CategoryNode category : target.categories.values()) {
+            for (String child : category.includes) {
+                includedBy.computeIfAbsent(child, k -> new HashSet<>()).add(category.name);
+            }
+        }
+        Set<String> dirty = new LinkedHashSet<>(changedNames);
+        Deque<String> queue = new ArrayDeque<>(changedNames);
+        while (!queue.isEmpty()) {
+            for (String parent : includedBy.getOrDefault(queue.poll(), Set.of())) {
+                if (dirty.add(parent)) queue.add(parent);
+            }
+        }
+        // Published nodes are never modified, so unchanged parents are re-flattened as copies
+        for (String name : dirty) {
+            CategoryNode category = target.categories.get(name);
+            if (category != null && !changedNames.contains(name)) {
+                previousNodes.put(name, category);
+                target.categories.put(name, copyUnflattened(category));
+            }
+        }
+
+        Set<ResourceLocation> touchedItems = new HashSet<>();
+        for (CategoryNode previous : previousNodes.values()) {
+            if (previous.flattenedItemIds != null) touchedItems.addAll(previous.flattenedItemIds);
+        }
+        Map<ResourceLocation, List<CategoryNode>> addedCategories = new HashMap<>();
+        int reflattened = 0;
+        for (String name : dirty) {
+            CategoryNode category = target.categories.get(name);
+            if (category == null) continue;
+            flattenCategory(target.categories, name);
+            reflattened++;
+            for (ResourceLocation itemId : category.flattenedItemIds) {
+                addedCategories.computeIfAbsent(itemId, k -> new ArrayList<>()).add(category);
+                touchedItems.add(itemId);
+            }
+        }
+
+        // Patch copies of the lookup tables for the touched items only
+        Map<ResourceLocation, Set<CategoryNode>> itemCategoryMap = new HashMap<>(base.getItemCategoryMap());
+        Map<ResourceLocation, List<CategoryNode>> sorted = new HashMap<>(base.getSortedItemCategories());
+        List<CategoryNode>[] byRawId = base.getCategoriesByRawId().length == BuiltInRegistries.ITEM.size()
+                ? base.getCategoriesByRawId().clone() : newCategoryTable(BuiltInRegistries.ITEM.size());
+        for (ResourceLocation itemId : touchedItems) {
+            Set<CategoryNode> itemCategories = new HashSet<>();
+            for (CategoryNode category : itemCategoryMap.getOrDefault(itemId, Set.of())) {
+                if (!dirty.contains(category.name)) itemCategories.add(category);
+            }
+            itemCategories.addAll(addedCategories.getOrDefault(itemId, List.of()));
+
+            List<CategoryNode> list = null;
+            if (itemCategories.isEmpty()) {
+                itemCategoryMap.remove(itemId);
+                sorted.remove(itemId);
+            } else {
+                list = sortedCategoryList(itemCategories);
+                itemCategoryMap.put(itemId, Collections.unmodifiableSet(itemCategories));
+                sorted.put(itemId, list);
+            }
+            int rawId = rawItemId(itemId);
+            if (rawId >= 0 && rawId < byRawId.length) byRawId[rawId] = list;
+        }
+
+        publish(base, new CategorySnapshot(NEXT_VERSION.incrementAndGet(),
+                Collections.unmodifiableMap(new HashMap<>(target.categories)),
+                Collections.unmodifiableMap(itemCategoryMap),
+                Collections.unmodifiableMap(sorted),
+                byRawId,
+                Collections.unmodifiableMap(new TreeMap<>(target.loadedFiles)),
+                fingerprint), registries);
+
+        LOGGER.info("Reloaded {} changed category files: {} categories changed, {} re-flattened",
+                changedFiles.size() + removedFiles.size(), changedNames.size(), reflattened);
+        return new ReloadStats(changedFiles.size() + removedFiles.size(), changedNames.size(), reflattened, false);
+    }
+
+    private static CategoryNode copyUnflattened(CategoryNode category) {
+        CategoryNode copy = new CategoryNode(category.name);
+        copy.includes.addAll(category.includes);
+        copy.itemIds.addAll(category.itemIds);
+        copy.filters.addAll(category.filters);
+        copy.compiledFilter = category.compiledFilter;
+        copy.priority = category.priority;
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<CategoryNode>[] newCategoryTable(int size) {
+        return (List<CategoryNode>[]) new List<?>[size];
     }
 
     /**
      * Gets categories that match an item ID, without checking filters.
      *
-     * <p>Returns categories sorted by priority (lower priority first).
-     * This method is useful for diagnostics or when you need to see all
-     * potential categories before filter evaluation.
+     * <p>Returns categories sorted by priority (lower priority first), then by name.
+     * The list is precomputed when categories are published and shared, so this
+     * lookup doesn't allocate.
      *
      * @param itemId The item's ResourceLocation (e.g., "minecraft:diamond_sword")
-     * @return List of matching categories sorted by priority, or empty list if none match
+     * @return Unmodifiable list of matching categories sorted by priority, or empty list if none match
      * @see #getMatchingCategories(ItemStack) for filter-aware matching
      */
     public static List<CategoryNode> getMatchingCategoriesNoFilter(ResourceLocation itemId) {
-        Set<CategoryNode> categoriesRaw = itemCategoryMap.get(itemId);
-        if (categoriesRaw == null) return new ArrayList<>();
-        List<CategoryNode> result = new ArrayList<>(categoriesRaw);
-        Collections.sort(result);
-        return result;
+        return awaitSnapshot().getMatchingCategoriesNoFilter(itemId);
+    }
+
+    /**
+     * Gets categories that match an item, without checking filters.
+     *
+     * <p>Same result as {@link #getMatchingCategoriesNoFilter(ResourceLocation)}, but looked up
+     * by the item's raw registry id in a flat table, with no hashing or key lookup.
+     *
+     * @param item The item
+     * @return Unmodifiable list of matching categories sorted by priority, or empty list if none match
+     */
+    public static List<CategoryNode> getMatchingCategoriesNoFilter(Item item) {
+        return awaitSnapshot().getMatchingCategoriesNoFilter(item);
     }
 
     /**
@@ -384,24 +1032,43 @@ public final class CategoryLoader {
      *
      * <p>First finds categories by item ID, then filters them based on each
      * category's filter rules (enchantments, custom names, durability, etc.).
-     * Returns categories sorted by priority (lower priority first).
+     * Filters run through each category's {@link CompiledFilter}, cheapest rule first,
+     * with component reads shared across all categories for the stack.
+     * Returns categories sorted by priority (lower priority first), then by name.
+     *
+     * <p>Results are cached by item and data components (up to {@value MatchCache#MAX_ENTRIES}
+     * entries, least recently used first out), including items that match nothing.
+     * Each published snapshot has its own cache.
      *
      * <p>This is the primary method used by the sorting engine to determine
      * where an item should be sorted.
      *
      * @param stack The item stack to match (must not be null or empty)
-     * @return List of matching categories sorted by priority, or empty list if none match
+     * @return Unmodifiable list of matching categories sorted by priority, or empty list if none match
      */
     public static List<CategoryNode> getMatchingCategories(ItemStack stack) {
-        ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
-        List<CategoryNode> filteredCategories = new ArrayList<>();
-        List<CategoryNode> matchedCategories = getMatchingCategoriesNoFilter(itemId);
+        CategorySnapshot snapshot = awaitSnapshot();
+        MatchCache cache = snapshot.getMatchCache();
+        List<CategoryNode> cached = cache.get(ItemKey.lookup(stack));
+        if (cached != null) return cached;
 
-        for (CategoryNode category : matchedCategories) {
-            if (category.filters.stream().allMatch(f -> f.matches(stack))) filteredCategories.add(category);
+        List<CategoryNode> matchedCategories = snapshot.getMatchingCategoriesNoFilter(stack.getItem());
+        List<CategoryNode> filteredCategories = new ArrayList<>(matchedCategories.size());
+
+        FilterInput input = FILTER_INPUT.get().reset(stack);
+        try {
+            for (CategoryNode category : matchedCategories) {
+                if (category.compiledFilter.matches(input)) filteredCategories.add(category);
+            }
+        } finally {
+            input.reset(ItemStack.EMPTY);
         }
 
-        return filteredCategories;
+        // Share the precomputed list when no filter rejected anything
+        List<CategoryNode> result = filteredCategories.size() == matchedCategories.size()
+                ? matchedCategories : List.copyOf(filteredCategories);
+        cache.put(ItemKey.of(stack), result);
+        return result;
     }
 
     // ========== Item Pattern Expansion Helpers ==========
@@ -410,11 +1077,11 @@ public final class CategoryLoader {
      * Expands a pattern string into item IDs and adds them to the category.
      * Supports: explicit item IDs, regex patterns (/regex/), and tag references (#tag).
      */
-    private static void expandItemPattern(String pattern, String categoryName, CategoryNode categoryNode) {
+    private static void expandItemPattern(Staging target, String pattern, String categoryName, CategoryNode categoryNode) {
         if (isRegexPattern(pattern)) {
-            expandRegexPattern(pattern, categoryNode);
+            expandRegexPattern(target, pattern, categoryNode);
         } else if (pattern.startsWith("#")) {
-            expandTag(pattern, categoryName, categoryNode);
+            expandTag(target, pattern, categoryName, categoryNode);
         } else {
             addExplicitItem(pattern, categoryName, categoryNode);
         }
@@ -424,15 +1091,55 @@ public final class CategoryLoader {
         return s.length() > 1 && s.charAt(0) == '/' && s.charAt(s.length() - 1) == '/';
     }
 
-    private static void expandRegexPattern(String patternStr, CategoryNode categoryNode) {
+    /**
+     * Compiles a regex pattern and queues it for {@link #expandPendingRegexPatterns(Staging)}.
+     * Identical patterns from different categories share one entry.
+     */
+    private static void expandRegexPattern(Staging target, String patternStr, CategoryNode categoryNode) {
         String regex = patternStr.substring(1, patternStr.length() - 1);
-        Pattern pattern = Pattern.compile(regex);
-        BuiltInRegistries.ITEM.keySet().stream()
-                .filter(itemId -> pattern.matcher(itemId.toString()).find())
-                .forEach(categoryNode.itemIds::add);
+        PendingRegex pending = target.pendingRegexPatterns.get(regex);
+        if (pending == null) {
+            pending = new PendingRegex(Pattern.compile(regex), new LinkedHashSet<>());
+            target.pendingRegexPatterns.put(regex, pending);
+        }
+        pending.categories().add(categoryNode);
     }
 
-    private static void expandTag(String tagRef, String categoryName, CategoryNode categoryNode) {
+    /**
+     * Expands all queued regex patterns in one pass over the item registry.
+     *
+     * <p>Each item ID is converted to a string once and tested against every pattern, in parallel
+     * across items. Matches are then added to each pattern's categories in registry order.
+     */
+    private static void expandPendingRegexPatterns(Staging target) {
+        if (target.pendingRegexPatterns.isEmpty()) return;
+        PendingRegex[] patterns = target.pendingRegexPatterns.values().toArray(new PendingRegex[0]);
+        target.pendingRegexPatterns.clear();
+
+        List<ResourceLocation> itemIds = new ArrayList<>(BuiltInRegistries.ITEM.keySet());
+        List<int[]> matches = itemIds.parallelStream()
+                .map(itemId -> {
+                    String idStr = itemId.toString();
+                    int[] hits = new int[patterns.length];
+                    int hitCount = 0;
+                    for (int i = 0; i < patterns.length; i++) {
+                        if (patterns[i].pattern().matcher(idStr).find()) hits[hitCount++] = i;
+                    }
+                    return Arrays.copyOf(hits, hitCount);
+                })
+                .toList();
+
+        for (int item = 0; item < itemIds.size(); item++) {
+            for (int patternIndex : matches.get(item)) {
+                for (CategoryNode categoryNode : patterns[patternIndex].categories()) {
+                    categoryNode.itemIds.add(itemIds.get(item));
+                }
+            }
+        }
+        LOGGER.debug("Expanded {} regex patterns over {} items", patterns.length, itemIds.size());
+    }
+
+    private static void expandTag(Staging target, String tagRef, String categoryName, CategoryNode categoryNode) {
         String tagId = tagRef.substring(1);
         ResourceLocation tagLocation = ResourceLocation.tryParse(tagId);
         if (tagLocation == null) {
@@ -441,12 +1148,7 @@ public final class CategoryLoader {
         }
 
         TagKey<Item> tagKey = TagKey.create(Registries.ITEM, tagLocation);
-        List<ResourceLocation> matchedItems = BuiltInRegistries.ITEM.keySet().stream()
-                .filter(itemId -> {
-                    Item item = RegistryHelper.getItemByKey(itemId);
-                    return item != null && BuiltInRegistries.ITEM.wrapAsHolder(item).is(tagKey);
-                })
-                .toList();
+        List<ResourceLocation> matchedItems = target.tagExpansions.computeIfAbsent(tagKey, CategoryLoader::resolveTag);
 
         if (matchedItems.isEmpty()) {
             LOGGER.warn("Tag '{}' matched no items for category '{}'", tagRef, categoryName);
@@ -456,6 +1158,20 @@ public final class CategoryLoader {
         }
     }
 
+    /**
+     * Resolves a tag's items through the registry's named tag set.
+     * Returns an empty list for unknown tags.
+     */
+    private static List<ResourceLocation> resolveTag(TagKey<Item> tagKey) {
+        List<Holder<Item>> holders = RegistryHelper.getItemTagOrNull(tagKey);
+        if (holders == null) return List.of();
+        List<ResourceLocation> itemIds = new ArrayList<>(holders.size());
+        for (Holder<Item> holder : holders) {
+            holder.unwrapKey().ifPresent(key -> itemIds.add(key.location()));
+        }
+        return List.copyOf(itemIds);
+    }
+
     private static void addExplicitItem(String itemName, String categoryName, CategoryNode categoryNode) {
         ResourceLocation id = ResourceLocation.tryParse(itemName);
         if (id == null) {
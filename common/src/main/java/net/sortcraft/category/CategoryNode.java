@@ -1,6 +1,7 @@
 package net.sortcraft.category;
 
 import net.minecraft.resources.ResourceLocation;
+import net.sortcraft.CompiledFilter;
 import net.sortcraft.FilterRule;
 
 import java.util.*;
@@ -16,6 +17,8 @@ public class CategoryNode implements Comparable<CategoryNode> {
     public final Set<ResourceLocation> itemIds = new HashSet<>();
     public Set<ResourceLocation> flattenedItemIds = null;
     public final List<FilterRule> filters = new ArrayList<>();
+    // Filters compiled by CategoryLoader after parsing; ALWAYS when there are none
+    public CompiledFilter compiledFilter = CompiledFilter.ALWAYS;
     public int priority = 10;
 
     public CategoryNode(String name) {
@@ -26,9 +29,13 @@ public class CategoryNode implements Comparable<CategoryNode> {
         return categories.stream().map(CategoryNode::toString).collect(Collectors.joining(", "));
     }
 
+    /**
+     * Orders by priority (lower first), then by name so equal priorities sort deterministically.
+     */
     @Override
     public int compareTo(CategoryNode other) {
-        return Integer.compare(priority, other.priority);
+        int cmp = Integer.compare(priority, other.priority);
+        return cmp != 0 ? cmp : name.compareTo(other.name);
     }
 
     @Override
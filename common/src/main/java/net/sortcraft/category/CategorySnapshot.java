@@ -0,0 +1,118 @@
+package net.sortcraft.category;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, versioned view of one complete category load: the categories with their
+ * flattened item sets and compiled filters, and the lookup tables built from them.
+ *
+ * <p>Snapshots are built off to the side by {@link CategoryLoader} and published with a single
+ * reference swap, so a reader that grabs one snapshot never sees a half-built reload.
+ * Category nodes are not modified once published, apart from the counters their
+ * {@link net.sortcraft.CompiledFilter}s keep for rule ordering.
+ */
+public final class CategorySnapshot {
+    static final CategorySnapshot EMPTY = empty(0);
+
+    private final long version;
+    private final Map<String, CategoryNode> categories;
+    private final Map<ResourceLocation, Set<CategoryNode>> itemCategoryMap;
+    // Priority-ordered, immutable category lists per item
+    private final Map<ResourceLocation, List<CategoryNode>> sortedItemCategories;
+    // The same lists indexed by raw item registry id, null where an item has no categories
+    private final List<CategoryNode>[] categoriesByRawId;
+    // Category files this snapshot was loaded from, in alphabetical order, for incremental reloads
+    private final Map<Path, CategoryLoader.LoadedFile> loadedFiles;
+    // Items and item tags the files were expanded against, or null if not loaded from disk
+    private final String registryFingerprint;
+    // Belongs to this snapshot only, so lookups in flight can't leak stale results into a newer one
+    private final MatchCache matchCache = new MatchCache();
+
+    CategorySnapshot(long version,
+                     Map<String, CategoryNode> categories,
+                     Map<ResourceLocation, Set<CategoryNode>> itemCategoryMap,
+                     Map<ResourceLocation, List<CategoryNode>> sortedItemCategories,
+                     List<CategoryNode>[] categoriesByRawId,
+                     Map<Path, CategoryLoader.LoadedFile> loadedFiles,
+                     String registryFingerprint) {
+        this.version = version;
+        this.categories = categories;
+        this.itemCategoryMap = itemCategoryMap;
+        this.sortedItemCategories = sortedItemCategories;
+        this.categoriesByRawId = categoriesByRawId;
+        this.loadedFiles = loadedFiles;
+        this.registryFingerprint = registryFingerprint;
+    }
+
+    @SuppressWarnings("unchecked")
+    static CategorySnapshot empty(long version) {
+        return new CategorySnapshot(version, Map.of(), Map.of(), Map.of(), (List<CategoryNode>[]) new List<?>[0], Map.of(), null);
+    }
+
+    /**
+     * Returns the snapshot's version. Every published snapshot, including the empty one
+     * published by {@link CategoryLoader#clear()}, has a higher version than the one before it.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns all categories, keyed by category name.
+     */
+    public Map<String, CategoryNode> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Returns the map from item ID to the set of categories that include it.
+     */
+    public Map<ResourceLocation, Set<CategoryNode>> getItemCategoryMap() {
+        return itemCategoryMap;
+    }
+
+    /**
+     * Gets categories that match an item ID, without checking filters, sorted by priority then name.
+     */
+    public List<CategoryNode> getMatchingCategoriesNoFilter(ResourceLocation itemId) {
+        return sortedItemCategories.getOrDefault(itemId, List.of());
+    }
+
+    /**
+     * Gets categories that match an item by raw registry id, without checking filters,
+     * sorted by priority then name.
+     */
+    public List<CategoryNode> getMatchingCategoriesNoFilter(Item item) {
+        int rawId = BuiltInRegistries.ITEM.getId(item);
+        if (rawId < 0 || rawId >= categoriesByRawId.length) return List.of();
+        List<CategoryNode> cats = categoriesByRawId[rawId];
+        return cats != null ? cats : List.of();
+    }
+
+    Map<ResourceLocation, List<CategoryNode>> getSortedItemCategories() {
+        return sortedItemCategories;
+    }
+
+    List<CategoryNode>[] getCategoriesByRawId() {
+        return categoriesByRawId;
+    }
+
+    Map<Path, CategoryLoader.LoadedFile> getLoadedFiles() {
+        return loadedFiles;
+    }
+
+    String getRegistryFingerprint() {
+        return registryFingerprint;
+    }
+
+    MatchCache getMatchCache() {
+        return matchCache;
+    }
+}
@@ -0,0 +1,37 @@
+package net.sortcraft.category;
+
+import net.sortcraft.container.ItemKey;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of filter-aware category matches, keyed by item and data components.
+ *
+ * <p>Values are immutable, priority-ordered lists; an empty list records an item that matches
+ * no category. A cache belongs to one set of loaded categories and is replaced, never
+ * cleared in place, when categories change.
+ */
+final class MatchCache {
+    static final int MAX_ENTRIES = 4096;
+
+    private final Map<ItemKey, List<CategoryNode>> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ItemKey, List<CategoryNode>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    synchronized List<CategoryNode> get(ItemKey key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(ItemKey key, List<CategoryNode> matches) {
+        entries.put(key, matches);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -10,7 +10,7 @@ import net.minecraft.resources.ResourceLocation;
 import net.sortcraft.category.CategoryLoader;
 import net.sortcraft.category.CategoryNode;
 
-import java.util.Set;
+import java.util.List;
 
 /**
  * Handles /sort category command.
@@ -27,8 +27,8 @@ public final class CategoryCommand {
             source.sendFailure(Component.literal("Unknown item: " + itemName));
             return 0;
         }
-        Set<CategoryNode> cats = CategoryLoader.getItemCategoryMap().get(id);
-        if (!(cats == null || cats.isEmpty())) {
+        List<CategoryNode> cats = CategoryLoader.getMatchingCategoriesNoFilter(id);
+        if (!cats.isEmpty()) {
             String categoriesStr = CategoryNode.categoriesToStr(cats);
             source.sendSuccess(() -> Component.literal("Item " + id + " belongs to categories '" + categoriesStr + "'."), false);
         } else {
@@ -17,11 +17,19 @@ public final class CommandHandler {
     private static final String SIGN_PREFIX = "[";
     private static final String SIGN_SUFFIX = "]";
     private static final String INPUT_SIGN_TEXT = SIGN_PREFIX + "input" + SIGN_SUFFIX;
+    private static final String AUTO_SIGN_TEXT = SIGN_PREFIX + "auto" + SIGN_SUFFIX;
 
     public static String getInputSignText() {
         return INPUT_SIGN_TEXT;
     }
 
+    /**
+     * Gets the text that marks an input sign for automatic sorting.
+     */
+    public static String getAutoSignText() {
+        return AUTO_SIGN_TEXT;
+    }
+
     public static String formatSignText(String text) {
         return SIGN_PREFIX + text + SIGN_SUFFIX;
     }
@@ -45,12 +53,19 @@ public final class CommandHandler {
                                         .suggests((context, builder) ->
                                                 SharedSuggestionProvider.suggestResource(BuiltInRegistries.ITEM.keySet(), builder))
                                         .executes(CategoryCommand::execute)))
+                        .then(Commands.literal("filters")
+                                .executes(FiltersCommand::executeAll)
+                                .then(Commands.argument("category", StringArgumentType.word())
+                                        .suggests(FiltersCommand::suggestCategories)
+                                        .executes(FiltersCommand::executeCategory)))
                         .then(Commands.literal("help")
                                 .executes(CommandHandler::executeHelp))
                         .then(Commands.literal("dump")
                                 .executes(DumpCommand::execute))
                         .then(Commands.literal("reload")
-                                .executes(ReloadCommand::execute))
+                                .executes(ReloadCommand::execute)
+                                .then(Commands.literal("changed")
+                                        .executes(ReloadCommand::executeChanged)))
         );
     }
 
@@ -62,7 +77,9 @@ public final class CommandHandler {
                 /sort diagnostics     - Generates a diagnostics report as YAML
                 /sort whereis <item>  - Finds chests that contain the specified item
                 /sort category <item> - Shows the sorting category for the specified item
+                /sort filters [cat]   - Shows the learned filter order and reject rates per category
                 /sort reload          - Reloads category configurations from config files
+                /sort reload changed  - Reloads only the category files that changed
                 /sort dump            - Generates JSON files with all item tags from the registry
                 /sort help            - Shows this help message
 
@@ -28,6 +28,8 @@ import java.util.*;
 
 /**
  * Handles /sort diagnostics command.
+ * The report starts with the category load status; while categories are still loading,
+ * only the status is reported rather than waiting for them.
  */
 public final class DiagCommand {
     private DiagCommand() {}
@@ -46,8 +48,11 @@ public final class DiagCommand {
         Map<String, Map<String, Object>> categoryData = new TreeMap<>();
 
         SortContext sortContext = new SortContext(world, playerPos, ConfigManager.getSearchRadius());
+        CategoryLoader.LoadStatus status = CategoryLoader.getLoadStatus();
+        boolean loading = status.state() == CategoryLoader.LoadState.LOADING;
+        Map<String, CategoryNode> categories = loading ? Map.of() : CategoryLoader.getCategories();
 
-        for (Map.Entry<String, CategoryNode> entry : CategoryLoader.getCategories().entrySet()) {
+        for (Map.Entry<String, CategoryNode> entry : categories.entrySet()) {
             String categoryName = entry.getKey();
             CategoryNode categoryNode = entry.getValue();
             Set<ResourceLocation> items = categoryNode.flattenedItemIds;
@@ -109,7 +114,20 @@ public final class DiagCommand {
             }
         }
 
+        Map<String, Object> statusData = new LinkedHashMap<>();
+        statusData.put("state", status.state().name());
+        if (status.state() != CategoryLoader.LoadState.NOT_STARTED) {
+            statusData.put("source", status.fromCache() ? "cache" : "files");
+            statusData.put("load_time_ms", status.elapsedMillis());
+        }
+        if (status.error() != null) statusData.put("error", status.error());
+        if (!loading) {
+            statusData.put("version", CategoryLoader.getSnapshot().getVersion());
+            statusData.put("category_count", categories.size());
+        }
+
         Map<String, Object> finalYaml = new LinkedHashMap<>();
+        finalYaml.put("_categories", statusData);
         for (Map.Entry<String, Map<String, Object>> e : categoryData.entrySet()) {
             finalYaml.put(e.getKey(), e.getValue());
         }
@@ -131,7 +149,10 @@ public final class DiagCommand {
             return 0;
         }
 
-        source.sendSuccess(() -> Component.literal("Sorter diagnostic written to sortcraft/sortdiag.yaml"), false);
+        String statusLine = loading
+                ? String.format("Categories are still loading (%d ms so far); the report only includes their status.", status.elapsedMillis())
+                : String.format("Categories: %s, %d loaded.", status.state().name().toLowerCase(), categories.size());
+        source.sendSuccess(() -> Component.literal("Sorter diagnostic written to sortcraft/sortdiag.yaml\n" + statusLine), false);
         return 1;
     }
 }
@@ -0,0 +1,88 @@
+package net.sortcraft.command;
+
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.network.chat.Component;
+import net.sortcraft.CompiledFilter;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.category.CategoryNode;
+import net.sortcraft.category.CategorySnapshot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles /sort filters command.
+ * Shows the learned evaluation order of each category's filters and how often each rule rejects.
+ */
+public final class FiltersCommand {
+    private FiltersCommand() {}
+
+    public static int executeAll(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        Map<String, CategoryNode> filtered = new TreeMap<>();
+        for (CategoryNode category : CategoryLoader.getCategories().values()) {
+            if (!category.compiledFilter.isEmpty()) filtered.put(category.name, category);
+        }
+
+        if (filtered.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("No categories have filters."), false);
+            return 1;
+        }
+
+        StringBuilder sb = new StringBuilder("Filter order by category:\n");
+        for (CategoryNode category : filtered.values()) {
+            appendCategory(sb, category);
+        }
+        String message = sb.toString();
+        source.sendSuccess(() -> Component.literal(message), false);
+        return 1;
+    }
+
+    /**
+     * Suggests category names. While the startup load is still running there are none, since
+     * waiting for it here would block the server thread.
+     */
+    public static CompletableFuture<Suggestions> suggestCategories(CommandContext<CommandSourceStack> context,
+                                                                   SuggestionsBuilder builder) {
+        CategorySnapshot snapshot = CategoryLoader.getSnapshotIfReady();
+        if (snapshot == null) return builder.buildFuture();
+        return SharedSuggestionProvider.suggest(snapshot.getCategories().keySet(), builder);
+    }
+
+    public static int executeCategory(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        String categoryName = StringArgumentType.getString(context, "category");
+        CategoryNode category = CategoryLoader.getCategories().get(categoryName);
+        if (category == null) {
+            source.sendFailure(Component.literal("Unknown category: " + categoryName));
+            return 0;
+        }
+        if (category.compiledFilter.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("Category '" + categoryName + "' has no filters."), false);
+            return 1;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        appendCategory(sb, category);
+        String message = sb.toString();
+        source.sendSuccess(() -> Component.literal(message), false);
+        return 1;
+    }
+
+    private static void appendCategory(StringBuilder sb, CategoryNode category) {
+        sb.append(category.name).append(category.compiledFilter.isGenerated() ? " (generated, fixed order):\n" : ":\n");
+        List<CompiledFilter.RuleStats> stats = category.compiledFilter.getStats();
+        for (int i = 0; i < stats.size(); i++) {
+            CompiledFilter.RuleStats rule = stats.get(i);
+            sb.append(String.format("  %d. %s - rejected %d of %d (%.0f%%)%n",
+                    i + 1, rule.rule(), rule.rejected(), rule.evaluated(), rule.rejectRate() * 100));
+        }
+    }
+}
@@ -9,8 +9,11 @@ import net.sortcraft.config.ConfigManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletionException;
+
 /**
- * Handles /sort reload command.
+ * Handles /sort reload and /sort reload changed commands.
+ * Categories are reloaded on a background thread; the result is reported back on the server thread.
  */
 public final class ReloadCommand {
     private ReloadCommand() {}
@@ -23,18 +26,58 @@ public final class ReloadCommand {
 
         try {
             ConfigManager.loadConfig();
-            CategoryLoader.clear();
-            CategoryLoader.loadCategories(server);
-            CategoryLoader.flattenCategories();
+        } catch (Exception e) {
+            source.sendFailure(Component.literal("Error reloading configuration: " + e.getMessage()));
+            LOGGER.error("[sortreload] Failed to reload configuration.", e);
+            return 0;
+        }
 
+        CategoryLoader.reloadAsync(server).whenComplete((snapshot, err) -> server.execute(() -> {
+            if (err != null) {
+                reportFailure(source, err, "[sortreload] Failed to reload configuration.");
+                return;
+            }
             source.sendSuccess(() -> Component.literal("Sortcraft configuration reloaded successfully."), false);
             LOGGER.info("[sortreload] Configuration reloaded successfully.");
-            return 1;
+        }));
+        source.sendSuccess(() -> Component.literal("Reloading Sortcraft categories..."), false);
+        return 1;
+    }
+
+    /**
+     * Reloads config.yaml and only the category files whose contents changed since the last load.
+     */
+    public static int executeChanged(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        MinecraftServer server = source.getServer();
+
+        try {
+            ConfigManager.loadConfig();
         } catch (Exception e) {
             source.sendFailure(Component.literal("Error reloading configuration: " + e.getMessage()));
             LOGGER.error("[sortreload] Failed to reload configuration.", e);
             return 0;
         }
+
+        CategoryLoader.reloadChangedCategoriesAsync(server).whenComplete((stats, err) -> server.execute(() -> {
+            if (err != null) {
+                reportFailure(source, err, "[sortreload] Failed to reload changed categories.");
+                return;
+            }
+            String message = stats.fullReload()
+                    ? "Sortcraft configuration reloaded successfully."
+                    : String.format("Sortcraft reloaded %d changed category files (%d categories changed, %d re-flattened).",
+                            stats.changedFiles(), stats.changedCategories(), stats.reflattenedCategories());
+            source.sendSuccess(() -> Component.literal(message), false);
+            LOGGER.info("[sortreload] {}", message);
+        }));
+        source.sendSuccess(() -> Component.literal("Reloading Sortcraft categories..."), false);
+        return 1;
     }
-}
 
+    private static void reportFailure(CommandSourceStack source, Throwable err, String logMessage) {
+        Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        source.sendFailure(Component.literal("Error reloading configuration: " + cause.getMessage()));
+        LOGGER.error(logMessage, cause);
+    }
+}
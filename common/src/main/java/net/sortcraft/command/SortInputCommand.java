@@ -14,13 +14,19 @@ import net.sortcraft.audit.SortAuditLog;
 import net.sortcraft.audit.SortAuditLogger;
 import net.sortcraft.config.ConfigManager;
 import net.sortcraft.container.ContainerHelper;
+import net.sortcraft.container.SignIndex;
 import net.sortcraft.container.SortContext;
+import net.sortcraft.sorting.AutoSorter;
+import net.sortcraft.sorting.InputSlotTracker;
+import net.sortcraft.sorting.SortJobScheduler;
+import net.sortcraft.sorting.SortTask;
 import net.sortcraft.sorting.SortingEngine;
 import net.sortcraft.sorting.SortingResults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Handles /sort input and /sort preview commands.
@@ -42,7 +48,8 @@ public final class SortInputCommand {
         LOGGER.debug("[sortinput] Starting sort near {}", playerPos);
 
         int searchRadius = ConfigManager.getSearchRadius();
-        SortContext context = new SortContext(world, playerPos, Math.max(searchRadius, INPUT_SIGN_SEARCH_RADIUS));
+        SignIndex signIndex = ConfigManager.isSignIndexEnabled() ? SignIndex.forLevel(world) : null;
+        SortContext context = new SortContext(world, playerPos, Math.max(searchRadius, INPUT_SIGN_SEARCH_RADIUS), signIndex);
 
         SignBlockEntity inputSign = context.findSign(CommandHandler.getInputSignText());
 
@@ -76,19 +83,43 @@ public final class SortInputCommand {
         }
 
         LOGGER.debug("[sortinput] Input chest inventory loaded. Beginning sort.");
+        AutoSorter.watch(world, inputSign);
+
+        // Requests for an input that is already being sorted are merged into that sort
+        SortJobScheduler.InputKey key = SortJobScheduler.InputKey.of(world, chestPos, preview);
+        SortJobScheduler.submit(key, player.getUUID(), () -> {
+            // Start audit logging if enabled
+            SortAuditLog audit = SortAuditLogger.isEnabled() && (!preview || SortAuditLogger.shouldLogPreviews())
+                    ? SortAuditLog.start(player, world, chestPos, searchRadius, preview)
+                    : null;
+            Supplier<Container> input = () -> ContainerHelper.getChestContainer(world, chestPos).orElse(null);
+            return new SortTask(context, world, input, preview, audit, ConfigManager.isSortPlanningEnabled(),
+                    InputSlotTracker.forInput(world, chestPos));
+        }, new SortJobScheduler.Listener() {
+            @Override
+            public void onProgress(SortTask task) {
+                player.displayClientMessage(Component.literal(
+                        "Sorting... " + task.getProcessedStacks() + "/" + task.getTotalStacks() + " stacks"), true);
+            }
 
-        // Start audit logging if enabled
-        SortAuditLog audit = SortAuditLogger.isEnabled() && (!preview || SortAuditLogger.shouldLogPreviews())
-                ? SortAuditLog.start(player, world, chestPos, searchRadius, preview)
-                : null;
-
-        SortingResults results = SortingEngine.sortFromContainer(context, world, inputInv, preview, audit);
+            @Override
+            public void onComplete(SortTask task) {
+                if (task.isAborted()) {
+                    source.sendFailure(Component.literal("Input chest is gone; sorting stopped."));
+                    LOGGER.debug("[sortinput] Input chest at {} disappeared during sort.", chestPos);
+                }
+                reportResults(source, task.getResults(), task.isPreview());
+            }
 
-        // Complete and log the audit entry
-        if (audit != null) {
-            audit.completeAndLog(results);
-        }
+            @Override
+            public void onFailed(SortTask task, RuntimeException error) {
+                source.sendFailure(Component.literal("Sorting failed with an error; see the server log. Unsorted items stay in the input chest."));
+            }
+        });
+        return 1;
+    }
 
+    private static void reportResults(CommandSourceStack source, SortingResults results, boolean preview) {
         StringBuilder message = new StringBuilder();
         message.append(SortingEngine.summarize(results.overflowCategories, "⚠ Storage overflow in following categories:"));
         message.append(SortingEngine.summarize(results.unknownItems, "⚠ No category found for following items:"));
@@ -109,7 +140,7 @@ public final class SortInputCommand {
                     source.sendSuccess(() -> Component.literal("- " + cat + ": " + count + " item" + (count != 1 ? "s" : "")), false);
                 }
             }
-            return 1;
+            return;
         }
 
         if (results.sorted > 0) {
@@ -120,8 +151,6 @@ public final class SortInputCommand {
             source.sendSuccess(() -> Component.literal("No items were sorted."), false);
             LOGGER.debug("[sortinput] No items were sorted.");
         }
-
-        return 1;
     }
 }
 
@@ -1,6 +1,7 @@
 package net.sortcraft.config;
 
 import net.sortcraft.audit.AuditConfig;
+import net.sortcraft.container.ScanMode;
 import net.sortcraft.platform.Platform;
 import org.apache.logging.log4j.core.config.Configurator;
 import org.slf4j.Logger;
@@ -25,12 +26,77 @@ public final class ConfigManager {
 
     // Configuration values with defaults
     private static int searchRadius = 64;
+    private static boolean signIndexEnabled = true;
+    private static boolean categoryCacheEnabled = true;
+    private static long sortTickBudgetNanos = 5_000_000;
+    private static boolean sortPlanningEnabled = true;
+    private static int maxSortsPerNetwork = 1;
+    private static boolean autoSortEnabled = true;
+    private static int autoSortMinStacks = 9;
+    private static int autoSortIdleTicks = 40;
+    private static boolean filterCodegenEnabled = false;
+    private static ScanMode scanMode = ScanMode.BLOCK_ENTITIES;
     private static AuditConfig auditConfig = new AuditConfig();
 
     public static int getSearchRadius() {
         return searchRadius;
     }
 
+    public static boolean isSignIndexEnabled() {
+        return signIndexEnabled;
+    }
+
+    public static boolean isCategoryCacheEnabled() {
+        return categoryCacheEnabled;
+    }
+
+    /**
+     * Gets how long sorting may run per server tick, in nanoseconds.
+     */
+    public static long getSortTickBudgetNanos() {
+        return sortTickBudgetNanos;
+    }
+
+    public static boolean isSortPlanningEnabled() {
+        return sortPlanningEnabled;
+    }
+
+    /**
+     * Gets how many sorts may run at once within one storage network.
+     */
+    public static int getMaxSortsPerNetwork() {
+        return maxSortsPerNetwork;
+    }
+
+    public static boolean isAutoSortEnabled() {
+        return autoSortEnabled;
+    }
+
+    /**
+     * Gets how many stacks must be waiting in an automatic input chest to sort it right away.
+     */
+    public static int getAutoSortMinStacks() {
+        return autoSortMinStacks;
+    }
+
+    /**
+     * Gets how many ticks an automatic input chest must stay unchanged before waiting stacks are sorted.
+     */
+    public static int getAutoSortIdleTicks() {
+        return autoSortIdleTicks;
+    }
+
+    /**
+     * Returns true if category filters should be compiled into generated classes.
+     */
+    public static boolean isFilterCodegenEnabled() {
+        return filterCodegenEnabled;
+    }
+
+    public static ScanMode getScanMode() {
+        return scanMode;
+    }
+
     public static AuditConfig getAuditConfig() {
         return auditConfig;
     }
@@ -74,6 +140,57 @@ public final class ConfigManager {
                         # Default: 64
                         searchRadius: 64
 
+                        # Keep a persistent index of signs and their text instead of scanning
+                        # every block within searchRadius on each sort
+                        # Default: true
+                        signIndex: true
+
+                        # How to find signs and containers when the index isn't used:
+                        # BLOCK_ENTITIES (loaded chunks only) or BLOCKS (every block position)
+                        # Default: BLOCK_ENTITIES
+                        scanMode: BLOCK_ENTITIES
+
+                        # Cache compiled categories in config/sortcraft/categories.cache so
+                        # restarts with unchanged category files skip compiling them
+                        # Default: true
+                        categoryCache: true
+
+                        # Milliseconds per server tick that sorting may take; bigger sorts
+                        # continue on the next ticks (a tick lasts 50 ms)
+                        # Default: 5
+                        sortTickBudgetMs: 5
+
+                        # Work out sorts on a background thread and only move the items on
+                        # the server thread (previews and audited sorts always run in the tick)
+                        # Default: true
+                        sortPlanning: true
+
+                        # How many sorts may run at once per storage network (sorts whose
+                        # sign search areas overlap, so they may share destination chests);
+                        # others wait their turn
+                        # Default: 1
+                        maxSortsPerNetwork: 1
+
+                        # Sort input chests whose sign also says [auto] as items arrive
+                        # Default: true
+                        autoSort: true
+
+                        # Sort an [auto] input chest once this many stacks are waiting,
+                        # or when it's full
+                        # Default: 9
+                        autoSortMinStacks: 9
+
+                        # Otherwise sort it once it hasn't changed for this many ticks
+                        # (20 ticks = 1 second)
+                        # Default: 40
+                        autoSortIdleTicks: 40
+
+                        # Compile each category's filters into a generated class that runs
+                        # them in a fixed cheapest-first order, instead of re-ordering them
+                        # by how often they reject items
+                        # Default: false
+                        filterCodegen: false
+
                         # Audit logging configuration
                         audit:
                           # Enable audit logging of sort operations
@@ -113,6 +230,76 @@ public final class ConfigManager {
                         searchRadius = radius.intValue();
                     }
 
+                    Object signIndexValue = config.get("signIndex");
+                    if (signIndexValue instanceof Boolean b) {
+                        signIndexEnabled = b;
+                    }
+
+                    Object categoryCacheValue = config.get("categoryCache");
+                    if (categoryCacheValue instanceof Boolean b) {
+                        categoryCacheEnabled = b;
+                    }
+
+                    Object sortTickBudgetValue = config.get("sortTickBudgetMs");
+                    if (sortTickBudgetValue instanceof Number budget) {
+                        if (budget.doubleValue() > 0) {
+                            sortTickBudgetNanos = (long) (budget.doubleValue() * 1_000_000);
+                        } else {
+                            LOGGER.warn("Invalid sortTickBudgetMs '{}' in config.yaml, must be positive", budget);
+                        }
+                    }
+
+                    Object sortPlanningValue = config.get("sortPlanning");
+                    if (sortPlanningValue instanceof Boolean b) {
+                        sortPlanningEnabled = b;
+                    }
+
+                    Object maxSortsValue = config.get("maxSortsPerNetwork");
+                    if (maxSortsValue instanceof Number max) {
+                        if (max.intValue() > 0) {
+                            maxSortsPerNetwork = max.intValue();
+                        } else {
+                            LOGGER.warn("Invalid maxSortsPerNetwork '{}' in config.yaml, must be positive", max);
+                        }
+                    }
+
+                    Object autoSortValue = config.get("autoSort");
+                    if (autoSortValue instanceof Boolean b) {
+                        autoSortEnabled = b;
+                    }
+
+                    Object autoSortMinStacksValue = config.get("autoSortMinStacks");
+                    if (autoSortMinStacksValue instanceof Number min) {
+                        if (min.intValue() > 0) {
+                            autoSortMinStacks = min.intValue();
+                        } else {
+                            LOGGER.warn("Invalid autoSortMinStacks '{}' in config.yaml, must be positive", min);
+                        }
+                    }
+
+                    Object autoSortIdleTicksValue = config.get("autoSortIdleTicks");
+                    if (autoSortIdleTicksValue instanceof Number ticks) {
+                        if (ticks.intValue() >= 0) {
+                            autoSortIdleTicks = ticks.intValue();
+                        } else {
+                            LOGGER.warn("Invalid autoSortIdleTicks '{}' in config.yaml, must not be negative", ticks);
+                        }
+                    }
+
+                    Object filterCodegenValue = config.get("filterCodegen");
+                    if (filterCodegenValue instanceof Boolean b) {
+                        filterCodegenEnabled = b;
+                    }
+
+                    Object scanModeValue = config.get("scanMode");
+                    if (scanModeValue instanceof String s) {
+                        try {
+                            scanMode = ScanMode.valueOf(s.toUpperCase());
+                        } catch (IllegalArgumentException e) {
+                            LOGGER.warn("Invalid scanMode '{}' in config.yaml, using BLOCK_ENTITIES", s);
+                        }
+                    }
+
                     // Load audit configuration
                     Object auditValue = config.get("audit");
                     if (auditValue instanceof Map<?, ?> auditMap) {
@@ -123,8 +310,14 @@ public final class ConfigManager {
 
             // Configure Log4j2 logger level
             Configurator.setLevel(MODID, logLevel);
-            LOGGER.info("Loaded config: logLevel={}, searchRadius={}, audit.enabled={}",
-                    logLevel, searchRadius, auditConfig.isEnabled());
+            LOGGER.info("Loaded config: logLevel={}, searchRadius={}, signIndex={}, scanMode={}, "
+                            + "categoryCache={}, filterCodegen={}, audit.enabled={}",
+                    logLevel, searchRadius, signIndexEnabled, scanMode,
+                    categoryCacheEnabled, filterCodegenEnabled, auditConfig.isEnabled());
+            LOGGER.debug("Sorting config: sortTickBudgetMs={}, sortPlanning={}, maxSortsPerNetwork={}, "
+                            + "autoSort={}, autoSortMinStacks={}, autoSortIdleTicks={}",
+                    sortTickBudgetNanos / 1_000_000.0, sortPlanningEnabled, maxSortsPerNetwork,
+                    autoSortEnabled, autoSortMinStacks, autoSortIdleTicks);
         } catch (IOException e) {
             LOGGER.error("Error loading config.yaml", e);
         }
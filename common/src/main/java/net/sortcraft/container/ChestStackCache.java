@@ -0,0 +1,111 @@
+package net.sortcraft.container;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-level cache of resolved chest stacks, keyed by the position of the chest a category sign is on.
+ *
+ * <p>Cached stacks are dropped when a block event touches their column or sign ring, and are
+ * re-checked with {@link ChestStackTopology#isValid(ServerLevel)} before each use so changes that
+ * don't fire events (pistons, explosions, commands) are still noticed. Each level keeps at most
+ * {@link #MAX_STACKS} stacks, dropping the least recently used, so stacks whose signs are never
+ * looked up again don't pile up.
+ *
+ * <p>All methods must be called from the server thread.
+ */
+public final class ChestStackCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
+
+    static final int MAX_STACKS = 1024;
+
+    private static final Map<ResourceKey<Level>, ChestStackCache> caches = new ConcurrentHashMap<>();
+
+    // Access-ordered, so the first entry is the least recently used
+    private final Map<BlockPos, ChestStackTopology> stacks = new LinkedHashMap<>(64, 0.75f, true);
+    // Watched position -> start positions of the stacks watching it
+    private final Map<BlockPos, Set<BlockPos>> watchers = new HashMap<>();
+
+    private ChestStackCache() {}
+
+    /**
+     * Gets the chest stack cache for a level.
+     */
+    public static ChestStackCache forLevel(ServerLevel level) {
+        return caches.computeIfAbsent(level.dimension(), key -> new ChestStackCache());
+    }
+
+    /**
+     * Drops any cached stack whose column or sign ring includes the given position.
+     * Called from block place/break events; safe to call for any block.
+     */
+    public static void markChanged(Level level, BlockPos pos) {
+        if (!(level instanceof ServerLevel)) return;
+        ChestStackCache cache = caches.get(level.dimension());
+        if (cache == null) return;
+
+        Set<BlockPos> startPositions = cache.watchers.get(pos);
+        if (startPositions == null) return;
+        for (BlockPos startPos : new ArrayList<>(startPositions)) {
+            cache.invalidate(startPos);
+        }
+    }
+
+    /**
+     * Drops all cached stacks for every level.
+     * Called on server stop.
+     */
+    public static void clearAll() {
+        caches.clear();
+    }
+
+    /**
+     * Gets the chest stack starting at the given chest, resolving it if it isn't cached or has changed.
+     *
+     * @param world the server level
+     * @param startPos the position of the chest the category sign is attached to
+     * @return the cached topology for the stack
+     */
+    public ChestStackTopology getChestStack(ServerLevel world, BlockPos startPos) {
+        ChestStackTopology topology = stacks.get(startPos);
+        if (topology != null) {
+            if (topology.isValid(world)) return topology;
+            LOGGER.trace("[cheststack] Cached stack at {} changed, resolving again", startPos);
+            invalidate(startPos);
+        }
+
+        topology = ContainerHelper.resolveChestStack(world, startPos);
+        if (!topology.isComplete()) {
+            LOGGER.trace("[cheststack] Stack at {} reaches into an unloaded chunk, not caching it", startPos);
+            return topology;
+        }
+        BlockPos key = startPos.immutable();
+        stacks.put(key, topology);
+        for (BlockPos watched : topology.getWatchedPositions()) {
+            watchers.computeIfAbsent(watched, k -> new HashSet<>()).add(key);
+        }
+        if (stacks.size() > MAX_STACKS) {
+            invalidate(stacks.keySet().iterator().next());
+        }
+        return topology;
+    }
+
+    private void invalidate(BlockPos startPos) {
+        ChestStackTopology topology = stacks.remove(startPos);
+        if (topology == null) return;
+
+        for (BlockPos watched : topology.getWatchedPositions()) {
+            Set<BlockPos> startPositions = watchers.get(watched);
+            if (startPositions == null) continue;
+            startPositions.remove(startPos);
+            if (startPositions.isEmpty()) watchers.remove(watched);
+        }
+    }
+}
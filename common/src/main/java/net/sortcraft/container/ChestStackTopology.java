@@ -0,0 +1,136 @@
+package net.sortcraft.container;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.minecraft.world.level.block.entity.SignText;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of a resolved chest stack.
+ *
+ * <p>Holds the chests (with double chests already resolved to their combined container) along with
+ * what was seen while resolving it. {@link #isValid(ServerLevel)} checks that cheaply, without looking
+ * up any block again:
+ * <ul>
+ *   <li>The block entities that were seen (chests, signs) haven't been removed</li>
+ *   <li>Attached signs still have the same text</li>
+ *   <li>Each chunk the stack touches has the same number of block entities, so a chest or sign placed
+ *       without a block event (commands, structures, other mods) still splits or extends the stack</li>
+ * </ul>
+ * Every observed position is also reported by {@link #getWatchedPositions()} so block events can
+ * invalidate the stack right away.
+ */
+public final class ChestStackTopology {
+    private record ObservedSign(SignBlockEntity sign, SignText front, SignText back) {}
+
+    private final List<ChestRef> chests;
+    private final List<BlockEntity> observedBlockEntities;
+    private final List<ObservedSign> observedSigns;
+    // Chunk key -> block entity count when the stack was resolved
+    private final Map<Long, Integer> chunkBlockEntityCounts;
+    private final Set<BlockPos> watchedPositions;
+    private final boolean complete;
+
+    private ChestStackTopology(Builder builder, List<ChestRef> chests) {
+        this.chests = List.copyOf(chests);
+        this.observedBlockEntities = List.copyOf(builder.observedBlockEntities);
+        this.observedSigns = List.copyOf(builder.observedSigns);
+        this.chunkBlockEntityCounts = Map.copyOf(builder.chunkBlockEntityCounts);
+        this.watchedPositions = Set.copyOf(builder.watchedPositions);
+        this.complete = builder.complete;
+    }
+
+    /**
+     * Gets the chests in this stack, in bottom-to-top order.
+     */
+    public List<ChestRef> getChests() {
+        return chests;
+    }
+
+    /**
+     * Gets every position whose change could alter this stack: the column itself and its sign ring.
+     */
+    public Set<BlockPos> getWatchedPositions() {
+        return watchedPositions;
+    }
+
+    /**
+     * Returns false if part of the stack was in a chunk that wasn't loaded, so it may be cut short
+     * and mustn't be cached.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Checks that nothing the stack was resolved from appears to have changed.
+     */
+    public boolean isValid(ServerLevel world) {
+        for (Map.Entry<Long, Integer> entry : chunkBlockEntityCounts.entrySet()) {
+            long chunkKey = entry.getKey();
+            LevelChunk chunk = world.getChunkSource().getChunkNow(ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey));
+            if (chunk == null || chunk.getBlockEntities().size() != entry.getValue()) return false;
+        }
+        for (BlockEntity be : observedBlockEntities) {
+            if (be.isRemoved()) return false;
+        }
+        for (ObservedSign observed : observedSigns) {
+            SignBlockEntity sign = observed.sign();
+            if (sign.getFrontText() != observed.front() || sign.getBackText() != observed.back()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Collects observations while a chest stack is being resolved.
+     */
+    static final class Builder {
+        private final Set<BlockEntity> observedBlockEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<ObservedSign> observedSigns = new ArrayList<>();
+        private final Map<Long, Integer> chunkBlockEntityCounts = new HashMap<>();
+        private final Set<BlockPos> watchedPositions = new HashSet<>();
+        private boolean complete = true;
+
+        /**
+         * Records the block entity at a position, and the block entity count of its chunk.
+         * Never loads the chunk.
+         *
+         * @return false if the position's chunk isn't loaded; the stack is then not complete, and
+         *         the caller shouldn't look at the position either
+         */
+        boolean observe(ServerLevel world, BlockPos pos) {
+            BlockPos immutablePos = pos.immutable();
+            LevelChunk chunk = world.getChunkSource().getChunkNow(
+                    SectionPos.blockToSectionCoord(immutablePos.getX()),
+                    SectionPos.blockToSectionCoord(immutablePos.getZ()));
+            if (chunk == null) {
+                complete = false;
+                return false;
+            }
+            if (!watchedPositions.add(immutablePos)) return true;
+            BlockEntity be = chunk.getBlockEntity(immutablePos);
+            if (be != null) observedBlockEntities.add(be);
+            chunkBlockEntityCounts.putIfAbsent(ChunkPos.asLong(immutablePos), chunk.getBlockEntities().size());
+            return true;
+        }
+
+        /**
+         * Records a sign attached to the stack, so edits to its text invalidate the stack.
+         */
+        void observeSign(SignBlockEntity sign) {
+            watchedPositions.add(sign.getBlockPos().immutable());
+            observedBlockEntities.add(sign);
+            observedSigns.add(new ObservedSign(sign, sign.getFrontText(), sign.getBackText()));
+        }
+
+        ChestStackTopology build(List<ChestRef> chests) {
+            return new ChestStackTopology(this, chests);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package net.sortcraft.container;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Utility methods for scanning block entities around a position chunk by chunk.
+ */
+public final class ChunkScanner {
+    private ChunkScanner() {}
+
+    /**
+     * Visits every block entity inside the search cube, using each loaded chunk's block entity map.
+     * Chunks that aren't loaded are skipped rather than loaded.
+     *
+     * @param world the server level
+     * @param center the center of the search cube
+     * @param radius the search radius in blocks
+     * @param action called for each block entity inside the cube
+     */
+    public static void forEachBlockEntity(ServerLevel world, BlockPos center, int radius, Consumer<BlockEntity> action) {
+        int minChunkX = SectionPos.blockToSectionCoord(center.getX() - radius);
+        int maxChunkX = SectionPos.blockToSectionCoord(center.getX() + radius);
+        int minChunkZ = SectionPos.blockToSectionCoord(center.getZ() - radius);
+        int maxChunkZ = SectionPos.blockToSectionCoord(center.getZ() + radius);
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                LevelChunk chunk = world.getChunkSource().getChunkNow(chunkX, chunkZ);
+                if (chunk == null) continue;
+
+                for (BlockEntity be : chunk.getBlockEntities().values()) {
+                    if (isWithinCube(be.getBlockPos(), center, radius)) {
+                        action.accept(be);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every block in the search cube whose state matches the filter, checking positions one by one.
+     * Chunk sections whose block state palette can't contain a matching state are skipped without
+     * looking at any of their blocks, which rules out most terrain in a single check.
+     * Chunks that aren't loaded are loaded as needed.
+     *
+     * @param world the server level
+     * @param center the center of the search cube
+     * @param radius the search radius in blocks
+     * @param filter which block states to visit; also used to reject whole sections
+     * @param action called with a mutable position and the matching state (copy the position to keep it)
+     */
+    public static void forEachMatchingBlock(ServerLevel world, BlockPos center, int radius,
+                                            Predicate<BlockState> filter, BiConsumer<BlockPos, BlockState> action) {
+        int minX = center.getX() - radius;
+        int maxX = center.getX() + radius;
+        int minY = center.getY() - radius;
+        int maxY = center.getY() + radius;
+        int minZ = center.getZ() - radius;
+        int maxZ = center.getZ() + radius;
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (int chunkX = SectionPos.blockToSectionCoord(minX); chunkX <= SectionPos.blockToSectionCoord(maxX); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(minZ); chunkZ <= SectionPos.blockToSectionCoord(maxZ); chunkZ++) {
+                LevelChunk chunk = world.getChunk(chunkX, chunkZ);
+
+                for (int sectionY = SectionPos.blockToSectionCoord(minY); sectionY <= SectionPos.blockToSectionCoord(maxY); sectionY++) {
+                    int sectionMinY = SectionPos.sectionToBlockCoord(sectionY);
+                    if (world.isOutsideBuildHeight(sectionMinY)) continue;
+
+                    LevelChunkSection section = chunk.getSection(world.getSectionIndex(sectionMinY));
+                    if (section.hasOnlyAir() || !section.maybeHas(filter)) continue;
+
+                    int fromX = Math.max(minX, SectionPos.sectionToBlockCoord(chunkX));
+                    int toX = Math.min(maxX, SectionPos.sectionToBlockCoord(chunkX) + 15);
+                    int fromY = Math.max(minY, sectionMinY);
+                    int toY = Math.min(maxY, sectionMinY + 15);
+                    int fromZ = Math.max(minZ, SectionPos.sectionToBlockCoord(chunkZ));
+                    int toZ = Math.min(maxZ, SectionPos.sectionToBlockCoord(chunkZ) + 15);
+
+                    for (int y = fromY; y <= toY; y++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            for (int x = fromX; x <= toX; x++) {
+                                BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+                                if (filter.test(state)) {
+                                    action.accept(pos.set(x, y, z), state);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a position lies inside the cube of the given radius around center.
+     */
+    public static boolean isWithinCube(BlockPos pos, BlockPos center, int radius) {
+        return Math.abs(pos.getX() - center.getX()) <= radius
+                && Math.abs(pos.getY() - center.getY()) <= radius
+                && Math.abs(pos.getZ() - center.getZ()) <= radius;
+    }
+
+    /**
+     * Checks whether pos is closer to center than other.
+     * Ties are broken in {@link BlockPos#betweenClosed} order (z, then y, then x), so results
+     * don't depend on which order positions were visited in.
+     */
+    public static boolean isCloser(BlockPos pos, BlockPos other, BlockPos center) {
+        int cmp = Double.compare(pos.distSqr(center), other.distSqr(center));
+        if (cmp != 0) return cmp < 0;
+        if (pos.getZ() != other.getZ()) return pos.getZ() < other.getZ();
+        if (pos.getY() != other.getY()) return pos.getY() < other.getY();
+        return pos.getX() < other.getX();
+    }
+}
@@ -57,6 +57,16 @@ public final class ContainerHelper {
         return blocks;
     }
 
+    /**
+     * Identifies a chest by the lowest position of its blocks, so both halves of a double chest
+     * get the same key.
+     */
+    public static long chestKey(BlockPos pos, ServerLevel world) {
+        long key = Long.MAX_VALUE;
+        for (BlockPos block : getChestBlocks(pos, world)) key = Math.min(key, block.asLong());
+        return key;
+    }
+
     /**
      * Gets the chest position attached to a sign.
      *
@@ -129,13 +139,25 @@ public final class ContainerHelper {
      * Collects all chests in a vertical stack starting from the given position.
      * Stops when a chest with a category sign is encountered below, or when
      * the maximum stack height is reached.
+     *
+     * <p>Resolved stacks are cached per level by {@link ChestStackCache}; the returned list is immutable.
      */
     public static List<ChestRef> collectChestStack(ServerLevel world, BlockPos startPos) {
+        return ChestStackCache.forLevel(world).getChestStack(world, startPos).getChests();
+    }
+
+    /**
+     * Walks the chest stack starting from the given position and records everything the result depends on.
+     * Used by {@link ChestStackCache}; call {@link #collectChestStack} instead.
+     */
+    static ChestStackTopology resolveChestStack(ServerLevel world, BlockPos startPos) {
+        ChestStackTopology.Builder topology = new ChestStackTopology.Builder();
         List<ChestRef> result = new ArrayList<>();
         BlockPos cur = startPos;
         int iterations = 0;
 
         while (iterations++ < MAX_CHEST_STACK_HEIGHT) {
+            if (!topology.observe(world, cur)) break;
             BlockState state = world.getBlockState(cur);
 
             Block block = state.getBlock();
@@ -145,10 +167,14 @@ public final class ContainerHelper {
                     result.add(new ChestRef(cur, inv));
                     LOGGER.trace("[cheststack] Added chest at {}", cur);
                 }
+                // The other half of a double chest is part of the resolved container
+                for (BlockPos half : getChestBlocks(cur, world)) {
+                    topology.observe(world, half);
+                }
             }
 
             BlockPos below = cur.below();
-            if (!(world.getBlockEntity(below) instanceof ChestBlockEntity)) {
+            if (!topology.observe(world, below) || !(world.getBlockEntity(below) instanceof ChestBlockEntity)) {
                 LOGGER.trace("[cheststack] Block below {} is not a chest. Done.", cur);
                 break;
             }
@@ -159,6 +185,8 @@ public final class ContainerHelper {
             for (Direction dir : Direction.Plane.HORIZONTAL) {
                 for (BlockPos chestPos : blocksForChest) {
                     BlockPos signPos = chestPos.relative(dir);
+                    // Empty ring positions are observed too, so a sign placed there later is noticed
+                    if (!topology.observe(world, signPos)) continue;
                     BlockState signState = world.getBlockState(signPos);
 
                     LOGGER.trace("[cheststack] Checking chestPos {} and direction {} - pos {} for a sign.", chestPos, dir, signPos);
@@ -168,6 +196,7 @@ public final class ContainerHelper {
 
                     BlockEntity signBe = world.getBlockEntity(signPos);
                     if (!(signBe instanceof SignBlockEntity sign)) continue;
+                    topology.observeSign(sign);
                     String line = findCategoryTextOnSign(sign);
                     if (line == null) continue;
 
@@ -180,14 +209,14 @@ public final class ContainerHelper {
 
             if (foundCategorySign) {
                 Collections.reverse(result);
-                return result;
+                return topology.build(result);
             }
 
             cur = below;
         }
 
         Collections.reverse(result);
-        return result;
+        return topology.build(result);
     }
 
     /**
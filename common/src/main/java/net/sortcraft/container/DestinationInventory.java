@@ -0,0 +1,106 @@
+package net.sortcraft.container;
+
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Slot index for a destination container, built once per sort operation.
+ *
+ * <p>Tracks which slots are empty, which slots hold a partial stack of each item type,
+ * and whether the container is full, so inserting a stack doesn't rescan every slot.
+ * Slots are re-checked against the container before use, so an index that has gone
+ * stale (for example, when the same chest is reached through two different stacks)
+ * never overwrites or over-fills a slot.
+ */
+public final class DestinationInventory {
+    private final Container inventory;
+    private final BitSet freeSlots = new BitSet();
+    // Item type -> slots holding a partial stack of it, in slot order
+    private final Map<ItemKey, ArrayDeque<Integer>> partialSlots = new HashMap<>();
+
+    public DestinationInventory(Container inventory) {
+        this.inventory = inventory;
+        for (int slot = 0; slot < inventory.getContainerSize(); slot++) {
+            ItemStack target = inventory.getItem(slot);
+            if (target.isEmpty()) {
+                freeSlots.set(slot);
+            } else if (target.getCount() < target.getMaxStackSize()) {
+                partialSlots.computeIfAbsent(ItemKey.of(target), key -> new ArrayDeque<>()).add(slot);
+            }
+        }
+    }
+
+    public Container getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Returns true if the container has no empty slots and no partial stacks.
+     */
+    public boolean isFull() {
+        return freeSlots.isEmpty() && partialSlots.isEmpty();
+    }
+
+    /**
+     * Inserts up to {@code amount} items of the stack's type, first topping up partial
+     * stacks and then filling empty slots. The given stack is not modified.
+     *
+     * <p>In preview mode the container is left untouched and no slots are claimed.
+     *
+     * @param stack The item type to insert
+     * @param amount The number of items to insert
+     * @param preview If true, only calculate how many items would fit
+     * @return The number of items that were (or would be) inserted
+     */
+    public int insert(ItemStack stack, int amount, boolean preview) {
+        if (amount <= 0 || isFull()) return 0;
+        int remaining = amount;
+
+        ItemKey key = ItemKey.lookup(stack);
+        ArrayDeque<Integer> partial = partialSlots.get(key);
+        if (partial != null) {
+            for (Iterator<Integer> it = partial.iterator(); it.hasNext() && remaining > 0; ) {
+                ItemStack target = inventory.getItem(it.next());
+                if (target.isEmpty() || !ItemStack.isSameItemSameComponents(stack, target)
+                        || target.getCount() >= target.getMaxStackSize()) {
+                    it.remove();
+                    continue;
+                }
+                int move = Math.min(target.getMaxStackSize() - target.getCount(), remaining);
+                if (!preview) {
+                    target.grow(move);
+                    if (target.getCount() >= target.getMaxStackSize()) it.remove();
+                }
+                remaining -= move;
+            }
+            if (partial.isEmpty()) partialSlots.remove(key);
+        }
+
+        int maxStackSize = Math.min(stack.getMaxStackSize(), 64);
+        for (int slot = freeSlots.nextSetBit(0); slot >= 0 && remaining > 0; slot = freeSlots.nextSetBit(slot + 1)) {
+            if (!inventory.getItem(slot).isEmpty()) {
+                freeSlots.clear(slot);
+                continue;
+            }
+            int move = Math.min(remaining, maxStackSize);
+            if (!preview) {
+                ItemStack toPut = stack.copy();
+                toPut.setCount(move);
+                inventory.setItem(slot, toPut);
+                freeSlots.clear(slot);
+                if (move < toPut.getMaxStackSize()) {
+                    partialSlots.computeIfAbsent(ItemKey.of(stack), k -> new ArrayDeque<>()).add(slot);
+                }
+            }
+            remaining -= move;
+        }
+
+        return amount - remaining;
+    }
+}
@@ -0,0 +1,54 @@
+package net.sortcraft.container;
+
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Hash key for an item type plus its data components, ignoring stack count.
+ * Two keys are equal when {@link ItemStack#isSameItemSameComponents} holds for their stacks.
+ *
+ * <p>Use {@link #of(ItemStack)} for keys that are stored, and {@link #lookup(ItemStack)}
+ * for short-lived keys that are only used to query a map.
+ */
+public final class ItemKey {
+    private final ItemStack stack;
+    private final int hash;
+
+    private ItemKey(ItemStack stack) {
+        this.stack = stack;
+        this.hash = ItemStack.hashItemAndComponents(stack);
+    }
+
+    /**
+     * Creates a key from a single-item copy of the stack, safe to store.
+     */
+    public static ItemKey of(ItemStack stack) {
+        return new ItemKey(stack.copyWithCount(1));
+    }
+
+    /**
+     * Creates a key that wraps the stack without copying it.
+     * Only valid while the stack's item and components are unchanged; do not store it.
+     */
+    public static ItemKey lookup(ItemStack stack) {
+        return new ItemKey(stack);
+    }
+
+    /**
+     * Gets the stack this key was made from. Must not be modified.
+     */
+    public ItemStack getStack() {
+        return stack;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemKey other)) return false;
+        return hash == other.hash && ItemStack.isSameItemSameComponents(stack, other.stack);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,17 @@
+package net.sortcraft.container;
+
+/**
+ * How {@link SortContext} finds signs and containers around the search center.
+ */
+public enum ScanMode {
+    /**
+     * Iterate the block entity map of each loaded chunk overlapping the search radius.
+     * Cost scales with the number of block entities, not the volume searched.
+     */
+    BLOCK_ENTITIES,
+    /**
+     * Check every block position in the search cube.
+     * Also sees chunks that aren't loaded yet, loading them as needed.
+     */
+    BLOCKS
+}
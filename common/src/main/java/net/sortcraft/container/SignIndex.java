@@ -0,0 +1,440 @@
+package net.sortcraft.container;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.WallSignBlock;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.minecraft.world.level.block.entity.SignText;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.storage.LevelResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent per-level index of wall signs, keyed by chunk and by normalized sign text.
+ *
+ * <p>Chunks are indexed lazily from their block entity map the first time a lookup touches them.
+ * After that the index is kept current without walking block entities again:
+ * <ul>
+ *   <li>Block place/break events queue their position, and the next lookup re-indexes that chunk,
+ *       which also picks up anything else that changed in it without an event</li>
+ *   <li>Sign text edits are detected by comparing the sign's {@link SignText} instances (they are immutable
+ *       and replaced on every edit), so text is only re-read when it actually changed</li>
+ *   <li>A chunk whose block entity count changed (signs placed or removed by commands, explosions,
+ *       other mods) is re-indexed</li>
+ *   <li>The first time a chunk is looked at after the index is loaded from disk, its block entities are
+ *       compared against a position and type fingerprint saved with it, and it's re-indexed if they differ</li>
+ * </ul>
+ * A block entity replaced in place without any event (say, a barrel by a sign through {@code /setblock})
+ * leaves the count unchanged, so it's only seen once something else re-indexes that chunk.
+ *
+ * <p>Only loaded chunks are looked at; lookups never load or generate chunks, and signs in
+ * unloaded chunks aren't returned.
+ *
+ * <p>Indexed signs and their text are saved alongside the world, so after a restart lookups are
+ * answered from the saved index rather than by re-reading every chunk.
+ *
+ * <p>All methods must be called from the server thread.
+ */
+public final class SignIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
+    private static final int FORMAT_VERSION = 2;
+    private static final String STORAGE_DIR = "sortcraft";
+
+    private static final Map<ResourceKey<Level>, SignIndex> indexes = new ConcurrentHashMap<>();
+
+    /** Signs known in one chunk column, plus what its block entities looked like when it was indexed. */
+    private static final class IndexedChunk {
+        final Set<BlockPos> signs = new HashSet<>();
+        final int blockEntityCount;
+        final long fingerprint;
+        // False for chunks loaded from disk until their fingerprint has been checked once
+        boolean verified;
+
+        IndexedChunk(int blockEntityCount, long fingerprint, boolean verified) {
+            this.blockEntityCount = blockEntityCount;
+            this.fingerprint = fingerprint;
+            this.verified = verified;
+        }
+
+        /**
+         * Returns true if the chunk's block entities may have changed since it was indexed.
+         * Only the count is compared, except the first time a chunk loaded from disk is looked at.
+         */
+        boolean isStale(Map<BlockPos, BlockEntity> blockEntities) {
+            if (blockEntityCount != blockEntities.size()) return true;
+            if (verified) return false;
+            verified = true;
+            return fingerprint != fingerprint(blockEntities);
+        }
+    }
+
+    /** Normalized text of one sign, along with the text instances it was read from. */
+    private static final class IndexedSign {
+        SignText front;
+        SignText back;
+        Set<String> texts = Set.of();
+    }
+
+    private final Map<Long, IndexedChunk> chunks = new HashMap<>();
+    private final Map<BlockPos, IndexedSign> signs = new HashMap<>();
+    private final Map<String, Set<BlockPos>> signsByText = new HashMap<>();
+    private final Set<BlockPos> pendingPositions = new HashSet<>();
+    private boolean dirty = false;
+
+    private SignIndex() {}
+
+    /**
+     * Gets the sign index for a level, loading it from disk on first use.
+     */
+    public static SignIndex forLevel(ServerLevel level) {
+        return indexes.computeIfAbsent(level.dimension(), key -> load(level));
+    }
+
+    /**
+     * Queues a block position to be re-read on the next lookup.
+     * Called from block place/break events; safe to call for any block.
+     */
+    public static void markChanged(Level level, BlockPos pos) {
+        if (!(level instanceof ServerLevel)) return;
+        SignIndex index = indexes.get(level.dimension());
+        if (index != null) {
+            index.pendingPositions.add(pos.immutable());
+        }
+    }
+
+    /**
+     * Saves the index for a level if it has unsaved changes.
+     */
+    public static void save(ServerLevel level) {
+        SignIndex index = indexes.get(level.dimension());
+        if (index != null && index.dirty) {
+            index.saveTo(getStoragePath(level));
+        }
+    }
+
+    /**
+     * Saves every loaded index and drops them from memory.
+     * Called on server stop.
+     */
+    public static void saveAndClearAll(Iterable<ServerLevel> levels) {
+        for (ServerLevel level : levels) {
+            save(level);
+        }
+        indexes.clear();
+    }
+
+    /**
+     * Brings every chunk overlapping the search cube up to date.
+     * Must be called before {@link #findNearest} for results to reflect the current world.
+     *
+     * @param level the level this index belongs to
+     * @param center the center of the search cube
+     * @param radius the search radius in blocks
+     */
+    public void refresh(ServerLevel level, BlockPos center, int radius) {
+        processPendingPositions(level);
+
+        int minChunkX = SectionPos.blockToSectionCoord(center.getX() - radius);
+        int maxChunkX = SectionPos.blockToSectionCoord(center.getX() + radius);
+        int minChunkZ = SectionPos.blockToSectionCoord(center.getZ() - radius);
+        int maxChunkZ = SectionPos.blockToSectionCoord(center.getZ() + radius);
+
+        int reindexed = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                // Unloaded chunks keep what was indexed for them until they're loaded again
+                LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                if (chunk == null) continue;
+                long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+                IndexedChunk indexed = chunks.get(chunkKey);
+
+                if (indexed == null || indexed.isStale(chunk.getBlockEntities())) {
+                    indexChunk(chunk, chunkKey);
+                    reindexed++;
+                } else {
+                    validateChunk(level, indexed);
+                }
+            }
+        }
+        LOGGER.debug("[SignIndex] Refreshed {} around {} (radius {}), {} chunks re-indexed, {} signs indexed",
+                level.dimension().location(), center, radius, reindexed, signs.size());
+    }
+
+    /**
+     * Finds the closest indexed sign with the given text inside the search cube.
+     * Ties are broken by position so results match a block-by-block scan of the cube.
+     *
+     * @param level the level this index belongs to
+     * @param text the sign text to look for (case-insensitive)
+     * @param center the center of the search cube
+     * @param radius the search radius in blocks
+     * @return the closest matching sign, or null if none is indexed within the radius
+     */
+    public SignBlockEntity findNearest(ServerLevel level, String text, BlockPos center, int radius) {
+        String key = normalize(text);
+        Set<BlockPos> candidates = signsByText.get(key);
+        if (candidates == null) return null;
+
+        List<BlockPos> inRange = new ArrayList<>();
+        for (BlockPos pos : candidates) {
+            if (ChunkScanner.isWithinCube(pos, center, radius) && level.isLoaded(pos)) {
+                inRange.add(pos);
+            }
+        }
+        inRange.sort((a, b) -> a.equals(b) ? 0 : ChunkScanner.isCloser(a, b, center) ? -1 : 1);
+
+        // The closest entry may have gone stale since the last refresh; drop it and try the next one
+        for (BlockPos pos : inRange) {
+            BlockEntity be = level.getBlockEntity(pos);
+            if (!isWallSign(be)) {
+                removeSign(pos, chunks.get(ChunkPos.asLong(pos)));
+                continue;
+            }
+            SignBlockEntity sign = (SignBlockEntity) be;
+            IndexedSign entry = signs.get(pos);
+            if (entry.front != sign.getFrontText() || entry.back != sign.getBackText()) {
+                updateText(pos, entry, sign);
+                if (!entry.texts.contains(key)) continue;
+            }
+            return sign;
+        }
+        return null;
+    }
+
+    /**
+     * Normalizes sign text for indexing and lookup.
+     */
+    static String normalize(String text) {
+        return text.trim().toLowerCase();
+    }
+
+    private void processPendingPositions(ServerLevel level) {
+        if (pendingPositions.isEmpty()) return;
+
+        Set<Long> reindexed = new HashSet<>();
+        for (Iterator<BlockPos> it = pendingPositions.iterator(); it.hasNext(); ) {
+            BlockPos pos = it.next();
+            long chunkKey = ChunkPos.asLong(pos);
+            // Chunks that aren't indexed yet will pick up the change when they are
+            if (!chunks.containsKey(chunkKey)) {
+                it.remove();
+                continue;
+            }
+            // Keep the position until its chunk is loaded again
+            LevelChunk chunk = level.getChunkSource().getChunkNow(
+                    SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+            if (chunk == null) continue;
+            it.remove();
+
+            // Re-index the whole chunk rather than just this position, so the new count and
+            // fingerprint describe what's really there
+            if (reindexed.add(chunkKey)) {
+                indexChunk(chunk, chunkKey);
+            }
+        }
+    }
+
+    private void indexChunk(LevelChunk chunk, long chunkKey) {
+        IndexedChunk previous = chunks.get(chunkKey);
+        if (previous != null) {
+            for (BlockPos pos : new ArrayList<>(previous.signs)) {
+                removeSign(pos, previous);
+            }
+        }
+
+        Map<BlockPos, BlockEntity> blockEntities = chunk.getBlockEntities();
+        IndexedChunk indexed = new IndexedChunk(blockEntities.size(), fingerprint(blockEntities), true);
+        for (BlockEntity be : blockEntities.values()) {
+            if (isWallSign(be)) {
+                addSign((SignBlockEntity) be, indexed);
+            }
+        }
+        chunks.put(chunkKey, indexed);
+        dirty = true;
+    }
+
+    private void validateChunk(ServerLevel level, IndexedChunk indexed) {
+        if (indexed.signs.isEmpty()) return;
+
+        List<BlockPos> removed = null;
+        for (BlockPos pos : indexed.signs) {
+            BlockEntity be = level.getBlockEntity(pos);
+            if (!isWallSign(be)) {
+                if (removed == null) removed = new ArrayList<>();
+                removed.add(pos);
+                continue;
+            }
+            SignBlockEntity sign = (SignBlockEntity) be;
+            IndexedSign entry = signs.get(pos);
+            if (entry.front != sign.getFrontText() || entry.back != sign.getBackText()) {
+                updateText(pos, entry, sign);
+            }
+        }
+        if (removed != null) {
+            for (BlockPos pos : removed) {
+                removeSign(pos, indexed);
+            }
+        }
+    }
+
+    /**
+     * Combines the positions and types of a chunk's block entities. Unlike the count, this changes when
+     * one block entity is replaced by another, and it stays the same across restarts so it can be saved.
+     */
+    private static long fingerprint(Map<BlockPos, BlockEntity> blockEntities) {
+        long fingerprint = 0;
+        for (Map.Entry<BlockPos, BlockEntity> entry : blockEntities.entrySet()) {
+            long type = BuiltInRegistries.BLOCK_ENTITY_TYPE.getId(entry.getValue().getType());
+            // Order-independent, since the map's iteration order isn't stable
+            fingerprint += (entry.getKey().asLong() * 31 + type) * 0x9E3779B97F4A7C15L;
+        }
+        return fingerprint;
+    }
+
+    private static boolean isWallSign(BlockEntity be) {
+        return be instanceof SignBlockEntity && be.getBlockState().getBlock() instanceof WallSignBlock;
+    }
+
+    private void addSign(SignBlockEntity sign, IndexedChunk indexed) {
+        BlockPos pos = sign.getBlockPos().immutable();
+        IndexedSign entry = new IndexedSign();
+        signs.put(pos, entry);
+        indexed.signs.add(pos);
+        updateText(pos, entry, sign);
+        dirty = true;
+    }
+
+    private void removeSign(BlockPos pos, IndexedChunk indexed) {
+        IndexedSign entry = signs.remove(pos);
+        if (entry == null) return;
+        if (indexed != null) indexed.signs.remove(pos);
+        unlinkText(pos, entry);
+        dirty = true;
+    }
+
+    private void updateText(BlockPos pos, IndexedSign entry, SignBlockEntity sign) {
+        unlinkText(pos, entry);
+
+        entry.front = sign.getFrontText();
+        entry.back = sign.getBackText();
+        Set<String> texts = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            String frontLine = normalize(entry.front.getMessage(i, false).getString());
+            String backLine = normalize(entry.back.getMessage(i, false).getString());
+            if (!frontLine.isEmpty()) texts.add(frontLine);
+            if (!backLine.isEmpty()) texts.add(backLine);
+        }
+        // Only the text is saved, so a new text instance with the same lines needs no save
+        if (!texts.equals(entry.texts)) dirty = true;
+        entry.texts = texts;
+
+        for (String text : texts) {
+            signsByText.computeIfAbsent(text, k -> new HashSet<>()).add(pos);
+        }
+    }
+
+    private void unlinkText(BlockPos pos, IndexedSign entry) {
+        for (String text : entry.texts) {
+            Set<BlockPos> positions = signsByText.get(text);
+            if (positions == null) continue;
+            positions.remove(pos);
+            if (positions.isEmpty()) signsByText.remove(text);
+        }
+        entry.texts = Set.of();
+    }
+
+    // ========== Persistence ==========
+
+    private static Path getStoragePath(ServerLevel level) {
+        String dimension = level.dimension().location().toString().replace(':', '_').replace('/', '_');
+        return level.getServer().getWorldPath(LevelResource.ROOT)
+                .resolve(STORAGE_DIR)
+                .resolve("signs-" + dimension + ".dat");
+    }
+
+    private static SignIndex load(ServerLevel level) {
+        SignIndex index = new SignIndex();
+        Path path = getStoragePath(level);
+        if (!Files.exists(path)) return index;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                LOGGER.info("[SignIndex] Ignoring {} with unsupported format version {}", path, version);
+                return index;
+            }
+            int chunkCount = in.readInt();
+            for (int i = 0; i < chunkCount; i++) {
+                long chunkKey = in.readLong();
+                IndexedChunk indexed = new IndexedChunk(in.readInt(), in.readLong(), false);
+                int signCount = in.readInt();
+                for (int j = 0; j < signCount; j++) {
+                    BlockPos pos = BlockPos.of(in.readLong());
+                    // The text instances aren't known, so the first refresh re-reads each sign once
+                    IndexedSign entry = new IndexedSign();
+                    int textCount = in.readInt();
+                    Set<String> texts = new HashSet<>();
+                    for (int k = 0; k < textCount; k++) {
+                        texts.add(in.readUTF());
+                    }
+                    entry.texts = texts;
+                    indexed.signs.add(pos);
+                    index.signs.put(pos, entry);
+                    for (String text : texts) {
+                        index.signsByText.computeIfAbsent(text, t -> new HashSet<>()).add(pos);
+                    }
+                }
+                index.chunks.put(chunkKey, indexed);
+            }
+            LOGGER.debug("[SignIndex] Loaded {} chunks and {} signs from {}", chunkCount, index.signs.size(), path);
+        } catch (IOException e) {
+            LOGGER.warn("[SignIndex] Failed to read sign index {}, rebuilding", path, e);
+            return new SignIndex();
+        }
+        return index;
+    }
+
+    private void saveTo(Path path) {
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(chunks.size());
+                for (Map.Entry<Long, IndexedChunk> entry : chunks.entrySet()) {
+                    IndexedChunk indexed = entry.getValue();
+                    out.writeLong(entry.getKey());
+                    out.writeInt(indexed.blockEntityCount);
+                    out.writeLong(indexed.fingerprint);
+                    out.writeInt(indexed.signs.size());
+                    for (BlockPos pos : indexed.signs) {
+                        Set<String> texts = signs.get(pos).texts;
+                        out.writeLong(pos.asLong());
+                        out.writeInt(texts.size());
+                        for (String text : texts) {
+                            out.writeUTF(text);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            LOGGER.error("[SignIndex] Failed to save sign index to {}", path, e);
+        }
+    }
+}
@@ -7,16 +7,23 @@ import net.minecraft.world.level.block.WallSignBlock;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.SignBlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.sortcraft.config.ConfigManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Per-command context that caches sign and container positions.
  * Built at command start and discarded after command completes.
+ *
+ * <p>When constructed with a {@link SignIndex}, sign lookups are answered from the index.
+ * Otherwise signs and containers are found by scanning according to the configured {@link ScanMode}.
  */
 public class SortContext {
     private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
@@ -25,15 +32,30 @@ public class SortContext {
     private final Map<String, SignBlockEntity> signCache = new HashMap<>();
     // Maps block position to container for whereis command
     private final Map<BlockPos, Container> containerCache = new HashMap<>();
+    // Maps category name to its destination chests (empty if no usable sign), for the lifetime of the operation
+    private final Map<String, List<ChestRef>> categoryChestCache = new HashMap<>();
+    // Maps destination container to its slot index, for the lifetime of the operation
+    private final Map<Container, DestinationInventory> destinationCache = new IdentityHashMap<>();
     private final ServerLevel world;
     private final BlockPos centerPos;
     private final int signRadius;
+    private final SignIndex signIndex;
+    private final ScanMode scanMode;
     private boolean signsScanned = false;
 
     public SortContext(ServerLevel world, BlockPos centerPos, int signRadius) {
+        this(world, centerPos, signRadius, null);
+    }
+
+    /**
+     * @param signIndex index to answer sign lookups from, or null to scan the search cube
+     */
+    public SortContext(ServerLevel world, BlockPos centerPos, int signRadius, SignIndex signIndex) {
         this.world = world;
         this.centerPos = centerPos;
         this.signRadius = signRadius;
+        this.signIndex = signIndex;
+        this.scanMode = ConfigManager.getScanMode();
     }
 
     public ServerLevel getWorld() {
@@ -44,6 +66,10 @@ public class SortContext {
         return centerPos;
     }
 
+    public int getSignRadius() {
+        return signRadius;
+    }
+
     /**
      * Scans all signs in radius and caches their positions by text.
      * Only keeps the closest sign for each unique text.
@@ -52,40 +78,52 @@ public class SortContext {
         if (signsScanned) return;
         signsScanned = true;
 
-        BlockPos min = centerPos.offset(-signRadius, -signRadius, -signRadius);
-        BlockPos max = centerPos.offset(signRadius, signRadius, signRadius);
-
-        LOGGER.info("[SortContext] Building sign cache: center={}, radius={}, searchArea=[{} to {}]",
-                centerPos, signRadius, min, max);
+        LOGGER.info("[SortContext] Building sign cache: center={}, radius={}, mode={}",
+                centerPos, signRadius, scanMode);
+
+        if (scanMode == ScanMode.BLOCK_ENTITIES) {
+            int[] signEntitiesFound = {0};
+            ChunkScanner.forEachBlockEntity(world, centerPos, signRadius, be -> {
+                if (!(be instanceof SignBlockEntity sign)) return;
+                if (!(sign.getBlockState().getBlock() instanceof WallSignBlock)) return;
+                signEntitiesFound[0]++;
+                cacheSign(sign, sign.getBlockPos());
+            });
+            LOGGER.info("[SortContext] Sign cache built: {} unique texts, {} wall signs found",
+                    signCache.size(), signEntitiesFound[0]);
+            return;
+        }
 
-        int wallSignsFound = 0;
-        int signEntitiesFound = 0;
+        int[] wallSignsFound = {0};
+        int[] signEntitiesFound = {0};
 
-        for (BlockPos pos : BlockPos.betweenClosed(min, max)) {
+        ChunkScanner.forEachMatchingBlock(world, centerPos, signRadius,
+                state -> state.getBlock() instanceof WallSignBlock, (pos, state) -> {
+            wallSignsFound[0]++;
             BlockEntity be = world.getBlockEntity(pos);
-            BlockState state = world.getBlockState(pos);
-            if (!(state.getBlock() instanceof WallSignBlock)) continue;
-            wallSignsFound++;
             if (!(be instanceof SignBlockEntity sign)) {
                 LOGGER.info("[SortContext] WallSignBlock at {} has no SignBlockEntity!", pos);
-                continue;
+                return;
             }
-            signEntitiesFound++;
+            signEntitiesFound[0]++;
+            cacheSign(sign, pos);
+        });
+        LOGGER.info("[SortContext] Sign cache built: {} unique texts, {} wall signs found, {} sign entities",
+                signCache.size(), wallSignsFound[0], signEntitiesFound[0]);
+    }
 
-            LOGGER.info("[SortContext] Found sign at {}: front line 0 = '{}'",
-                    pos, sign.getFrontText().getMessage(0, false).getString().trim());
+    private void cacheSign(SignBlockEntity sign, BlockPos pos) {
+        LOGGER.info("[SortContext] Found sign at {}: front line 0 = '{}'",
+                pos, sign.getFrontText().getMessage(0, false).getString().trim());
 
-            // Get all text lines from the sign
-            for (int i = 0; i < 4; i++) {
-                String frontLine = sign.getFrontText().getMessage(i, false).getString().trim();
-                String backLine = sign.getBackText().getMessage(i, false).getString().trim();
+        // Get all text lines from the sign
+        for (int i = 0; i < 4; i++) {
+            String frontLine = sign.getFrontText().getMessage(i, false).getString().trim();
+            String backLine = sign.getBackText().getMessage(i, false).getString().trim();
 
-                cacheSignText(frontLine, sign, pos);
-                cacheSignText(backLine, sign, pos);
-            }
+            cacheSignText(frontLine, sign, pos);
+            cacheSignText(backLine, sign, pos);
         }
-        LOGGER.info("[SortContext] Sign cache built: {} unique texts, {} wall signs found, {} sign entities",
-                signCache.size(), wallSignsFound, signEntitiesFound);
     }
 
     private void cacheSignText(String text, SignBlockEntity sign, BlockPos pos) {
@@ -94,14 +132,8 @@ public class SortContext {
 
         // Only keep the closest sign for each text
         SignBlockEntity existing = signCache.get(lowerText);
-        if (existing == null) {
+        if (existing == null || ChunkScanner.isCloser(pos, existing.getBlockPos(), centerPos)) {
             signCache.put(lowerText, sign);
-        } else {
-            double existingDist = existing.getBlockPos().distSqr(centerPos);
-            double newDist = pos.distSqr(centerPos);
-            if (newDist < existingDist) {
-                signCache.put(lowerText, sign);
-            }
         }
     }
 
@@ -109,6 +141,8 @@ public class SortContext {
      * Finds the closest sign with the given text, using the cache.
      */
     public SignBlockEntity findSign(String text) {
+        if (signIndex != null) return findIndexedSign(text);
+
         buildSignCache();
         SignBlockEntity result = signCache.get(text.toLowerCase());
         LOGGER.info("[SortContext] findSign('{}') -> {}", text,
@@ -116,19 +150,68 @@ public class SortContext {
         return result;
     }
 
+    private SignBlockEntity findIndexedSign(String text) {
+        if (!signsScanned) {
+            signsScanned = true;
+            signIndex.refresh(world, centerPos, signRadius);
+        }
+        SignBlockEntity result = signIndex.findNearest(world, text, centerPos, signRadius);
+        LOGGER.debug("[SortContext] findSign('{}') via index -> {}", text,
+                result != null ? "found at " + result.getBlockPos() : "NOT FOUND");
+        return result;
+    }
+
+    /**
+     * Gets the destination chests for a category, resolving them only the first time
+     * the category is asked for during this operation. Missing signs are cached as an empty list.
+     *
+     * @param categoryName the category name (without brackets)
+     * @param resolver resolves the chests on a cache miss
+     * @return the chests for the category, or an empty list if it has none
+     */
+    public List<ChestRef> getCategoryChests(String categoryName, Function<String, List<ChestRef>> resolver) {
+        return categoryChestCache.computeIfAbsent(categoryName, resolver);
+    }
+
+    /**
+     * Forgets the destination chests and slot indexes built so far, so each category is resolved
+     * again (through {@link ChestStackCache}) and each container re-indexed the next time it's
+     * used. Used by operations that span several ticks, during which chests may be placed or
+     * broken, and slots may be filled or emptied by players and hoppers.
+     */
+    public void forgetResolvedChests() {
+        categoryChestCache.clear();
+        destinationCache.clear();
+    }
+
+    /**
+     * Gets the slot index for a destination container, building it the first time
+     * the container is used during this operation.
+     */
+    public DestinationInventory getDestinationInventory(Container container) {
+        return destinationCache.computeIfAbsent(container, DestinationInventory::new);
+    }
+
     /**
      * Builds the container cache for whereis command.
      */
     public void buildContainerCache() {
-        BlockPos min = centerPos.offset(-signRadius, -signRadius, -signRadius);
-        BlockPos max = centerPos.offset(signRadius, signRadius, signRadius);
+        if (scanMode == ScanMode.BLOCK_ENTITIES) {
+            ChunkScanner.forEachBlockEntity(world, centerPos, signRadius, be -> {
+                if (be instanceof Container inv) {
+                    containerCache.put(be.getBlockPos().immutable(), inv);
+                }
+            });
+            LOGGER.debug("[SortContext] Container cache built with {} containers", containerCache.size());
+            return;
+        }
 
-        for (BlockPos pos : BlockPos.betweenClosed(min, max)) {
+        ChunkScanner.forEachMatchingBlock(world, centerPos, signRadius, BlockState::hasBlockEntity, (pos, state) -> {
             BlockEntity be = world.getBlockEntity(pos);
             if (be instanceof Container inv) {
                 containerCache.put(pos.immutable(), inv);
             }
-        }
+        });
         LOGGER.debug("[SortContext] Container cache built with {} containers", containerCache.size());
     }
 
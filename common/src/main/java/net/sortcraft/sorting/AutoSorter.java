@@ -0,0 +1,332 @@
+package net.sortcraft.sorting;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.minecraft.world.level.storage.LevelResource;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.command.CommandHandler;
+import net.sortcraft.config.ConfigManager;
+import net.sortcraft.container.ContainerHelper;
+import net.sortcraft.container.SignIndex;
+import net.sortcraft.container.SortContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Sorts input chests marked for automatic sorting as items arrive, for example from hoppers.
+ *
+ * <p>A chest is watched once its {@code [input]} sign also has an {@code [auto]} line and a player
+ * has used the sign (or {@code /sort input}) once. Watched signs are saved alongside the world, and
+ * a watch is dropped when its sign loses either line or its chest is gone.
+ *
+ * <p>There is no event for container changes, so every loaded watched chest is looked at each
+ * tick. Arriving items are batched: a sort starts once
+ * <ul>
+ *   <li>at least {@link ConfigManager#getAutoSortMinStacks()} stacks are waiting,</li>
+ *   <li>the chest is full, or</li>
+ *   <li>the chest hasn't changed for {@link ConfigManager#getAutoSortIdleTicks()} ticks.</li>
+ * </ul>
+ * Only stacks that arrived or changed since the last automatic sort count as waiting, and stacks
+ * the {@link InputSlotTracker} knows no category matches don't count at all. Leftovers that didn't
+ * fit into full destination chests therefore wait for new items instead of being retried over and
+ * over, and a chest that was still full after its last sort isn't sorted again just for being full.
+ *
+ * <p>Sorts go through the {@link SortJobScheduler} with the input itself as requester, so they
+ * share the tick budget and take turns with player sorts. Automatic sorts aren't audited.
+ *
+ * <p>All methods must be called from the server thread.
+ */
+public final class AutoSorter {
+    private AutoSorter() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
+    private static final int FORMAT_VERSION = 1;
+    private static final String STORAGE_DIR = "sortcraft";
+
+    /** What was last seen in the chest of one watched sign. */
+    private static final class Watch {
+        BlockPos chestPos;
+        long signature;
+        int idleTicks;
+        // Stack and count of each slot when the last automatic sort finished, null before the first
+        ItemStack[] sortedStacks;
+        int[] sortedCounts;
+        // The chest was still full after the last automatic sort
+        boolean sortedFull;
+
+        /**
+         * Returns true if a slot holds something other than when the last automatic sort finished.
+         */
+        boolean changedSinceSort(int slot, ItemStack stack) {
+            if (sortedStacks == null || slot >= sortedStacks.length) return true;
+            return sortedStacks[slot] != stack || sortedCounts[slot] != stack.getCount();
+        }
+
+        void recordSorted(Container container) {
+            int size = container.getContainerSize();
+            sortedStacks = new ItemStack[size];
+            sortedCounts = new int[size];
+            sortedFull = true;
+            for (int slot = 0; slot < size; slot++) {
+                ItemStack stack = container.getItem(slot);
+                sortedStacks[slot] = stack;
+                sortedCounts[slot] = stack.getCount();
+                if (stack.isEmpty()) sortedFull = false;
+            }
+        }
+    }
+
+    /** Watched signs of one level, in the order they were added. */
+    private static final class LevelWatches {
+        final Map<BlockPos, Watch> watches = new LinkedHashMap<>();
+        boolean dirty = false;
+
+        void saveTo(Path path) {
+            try {
+                Files.createDirectories(path.getParent());
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeInt(watches.size());
+                    for (BlockPos pos : watches.keySet()) {
+                        out.writeLong(pos.asLong());
+                    }
+                }
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+                dirty = false;
+            } catch (IOException e) {
+                LOGGER.error("[autosort] Failed to save watched input signs to {}", path, e);
+            }
+        }
+    }
+
+    private static final Map<ResourceKey<Level>, LevelWatches> levels = new HashMap<>();
+
+    /**
+     * Starts watching the chest of an input sign, if the sign is marked for automatic sorting.
+     * Called when a player uses an input sign.
+     *
+     * @return true if the sign's chest is watched
+     */
+    public static boolean watch(ServerLevel world, SignBlockEntity sign) {
+        if (!ConfigManager.isAutoSortEnabled() || !isAutoInputSign(sign)) return false;
+        BlockPos chestPos = ContainerHelper.getAttachedChestPos(sign.getBlockPos(), sign.getBlockState(), world);
+        if (chestPos == null) return false;
+
+        LevelWatches level = forLevel(world);
+        Watch watch = level.watches.get(sign.getBlockPos());
+        if (watch == null) {
+            watch = new Watch();
+            level.watches.put(sign.getBlockPos().immutable(), watch);
+            level.dirty = true;
+            LOGGER.debug("[autosort] Watching input chest at {}", chestPos);
+        }
+        watch.chestPos = chestPos;
+        return true;
+    }
+
+    /**
+     * Looks at every loaded watched chest and starts the sorts that are due.
+     * Registered as a server tick handler.
+     */
+    public static void tick(MinecraftServer server) {
+        if (!ConfigManager.isAutoSortEnabled()) return;
+        // Checking a chest looks up categories; don't hold up the first ticks waiting for the startup load
+        if (CategoryLoader.getSnapshotIfReady() == null) return;
+        for (ServerLevel world : server.getAllLevels()) {
+            LevelWatches level = forLevel(world);
+            for (Iterator<Map.Entry<BlockPos, Watch>> it = level.watches.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<BlockPos, Watch> entry = it.next();
+                if (!world.isLoaded(entry.getKey())) continue;
+                if (!check(world, entry.getKey(), entry.getValue())) {
+                    LOGGER.debug("[autosort] Input sign at {} is gone or no longer marked, stopped watching", entry.getKey());
+                    it.remove();
+                    level.dirty = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates what was seen in a watched chest, and submits a sort if one is due.
+     *
+     * @return false if the watch should be dropped
+     */
+    private static boolean check(ServerLevel world, BlockPos signPos, Watch watch) {
+        if (watch.chestPos == null && !resolve(world, signPos, watch)) return false;
+        Container container = ContainerHelper.getChestContainer(world, watch.chestPos).orElse(null);
+        // The chest was broken or replaced; look again next tick
+        if (container == null) return resolve(world, signPos, watch);
+
+        SortJobScheduler.InputKey key = SortJobScheduler.InputKey.of(world, watch.chestPos, false);
+        if (SortJobScheduler.isPending(key, key)) return true;
+
+        long signature = signature(container);
+        if (signature != watch.signature) {
+            watch.signature = signature;
+            watch.idleTicks = 0;
+        } else if (watch.idleTicks < Integer.MAX_VALUE) {
+            watch.idleTicks++;
+        }
+
+        BitSet clean = InputSlotTracker.forInput(world, watch.chestPos).cleanSlots(container);
+        int waiting = 0;
+        boolean full = true;
+        for (int slot = 0; slot < container.getContainerSize(); slot++) {
+            ItemStack stack = container.getItem(slot);
+            if (stack.isEmpty()) full = false;
+            else if (!clean.get(slot) && watch.changedSinceSort(slot, stack)) waiting++;
+        }
+        if (waiting == 0) return true;
+        // A chest full of leftovers stays full, so only a chest that filled up since is due for that
+        boolean filledUp = full && !watch.sortedFull;
+        if (waiting < ConfigManager.getAutoSortMinStacks() && !filledUp
+                && watch.idleTicks < ConfigManager.getAutoSortIdleTicks()) {
+            return true;
+        }
+
+        if (!resolve(world, signPos, watch)) return false;
+        submit(world, watch);
+        return true;
+    }
+
+    private static void submit(ServerLevel world, Watch watch) {
+        BlockPos chestPos = watch.chestPos;
+        SortJobScheduler.InputKey key = SortJobScheduler.InputKey.of(world, chestPos, false);
+        SignIndex signIndex = ConfigManager.isSignIndexEnabled() ? SignIndex.forLevel(world) : null;
+        Supplier<Container> input = () -> ContainerHelper.getChestContainer(world, chestPos).orElse(null);
+        LOGGER.debug("[autosort] Sorting input chest at {} after {} idle ticks", chestPos, watch.idleTicks);
+
+        SortJobScheduler.submit(key, key, () -> {
+            SortContext context = new SortContext(world, chestPos, ConfigManager.getSearchRadius(), signIndex);
+            return new SortTask(context, world, input, false, null, ConfigManager.isSortPlanningEnabled(),
+                    InputSlotTracker.forInput(world, chestPos));
+        }, new SortJobScheduler.Listener() {
+            @Override
+            public void onComplete(SortTask task) {
+                recordSorted();
+                LOGGER.debug("[autosort] Sorted {} items from input chest at {}", task.getResults().sorted, chestPos);
+            }
+
+            @Override
+            public void onFailed(SortTask task, RuntimeException error) {
+                // Not retried until the chest changes, or a failing sort would run on every trigger
+                recordSorted();
+            }
+
+            private void recordSorted() {
+                Container container = input.get();
+                if (container != null) watch.recordSorted(container);
+            }
+        });
+    }
+
+    /**
+     * Re-reads the watched sign and the chest it's attached to.
+     *
+     * @return false if the sign is gone or no longer marked for automatic sorting
+     */
+    private static boolean resolve(ServerLevel world, BlockPos signPos, Watch watch) {
+        if (!(world.getBlockEntity(signPos) instanceof SignBlockEntity sign) || !isAutoInputSign(sign)) return false;
+        BlockPos chestPos = ContainerHelper.getAttachedChestPos(signPos, sign.getBlockState(), world);
+        if (chestPos == null) return false;
+        watch.chestPos = chestPos;
+        return true;
+    }
+
+    /**
+     * Sums up a container's contents. Hoppers and players change slots by replacing stacks or
+     * changing their counts, so stack identity and count catch every change.
+     */
+    private static long signature(Container container) {
+        long signature = 1;
+        for (int slot = 0; slot < container.getContainerSize(); slot++) {
+            ItemStack stack = container.getItem(slot);
+            signature = signature * 31 + System.identityHashCode(stack);
+            signature = signature * 31 + stack.getCount();
+        }
+        return signature;
+    }
+
+    private static boolean isAutoInputSign(SignBlockEntity sign) {
+        boolean input = false;
+        boolean auto = false;
+        for (int i = 0; i < 4; i++) {
+            String line = sign.getFrontText().getMessage(i, false).getString().trim().toLowerCase();
+            input |= line.contains(CommandHandler.getInputSignText());
+            auto |= line.contains(CommandHandler.getAutoSignText());
+        }
+        return input && auto;
+    }
+
+    private static LevelWatches forLevel(ServerLevel world) {
+        return levels.computeIfAbsent(world.dimension(), key -> load(world));
+    }
+
+    /**
+     * Saves the watched signs of a level if they changed.
+     */
+    public static void save(ServerLevel world) {
+        LevelWatches level = levels.get(world.dimension());
+        if (level != null && level.dirty) {
+            level.saveTo(getStoragePath(world));
+        }
+    }
+
+    /**
+     * Saves the watched signs of every level and drops them from memory.
+     * Called on server stop.
+     */
+    public static void saveAndClearAll(Iterable<ServerLevel> worlds) {
+        for (ServerLevel world : worlds) {
+            save(world);
+        }
+        levels.clear();
+    }
+
+    // ========== Persistence ==========
+
+    private static Path getStoragePath(ServerLevel world) {
+        String dimension = world.dimension().location().toString().replace(':', '_').replace('/', '_');
+        return world.getServer().getWorldPath(LevelResource.ROOT)
+                .resolve(STORAGE_DIR)
+                .resolve("auto-inputs-" + dimension + ".dat");
+    }
+
+    private static LevelWatches load(ServerLevel world) {
+        LevelWatches level = new LevelWatches();
+        Path path = getStoragePath(world);
+        if (!Files.exists(path)) return level;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                LOGGER.info("[autosort] Ignoring {} with unsupported format version {}", path, version);
+                return level;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                // Chests are resolved from their signs the first time they're looked at
+                level.watches.put(BlockPos.of(in.readLong()), new Watch());
+            }
+            LOGGER.debug("[autosort] Loaded {} watched input signs from {}", count, path);
+        } catch (IOException e) {
+            LOGGER.warn("[autosort] Failed to read watched input signs from {}", path, e);
+            return new LevelWatches();
+        }
+        return level;
+    }
+}
@@ -0,0 +1,94 @@
+package net.sortcraft.sorting;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.container.ContainerHelper;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers which slots of an input container were settled by its last sort, so the next sort
+ * can skip the ones nobody touched since.
+ *
+ * <p>A slot is settled when the sort left a plain (non-container) stack behind that no category
+ * matches. Such a stack can't be sorted until the categories change, so as long as the slot
+ * still holds the very same stack with the same count, sorting it again is wasted work.
+ * Leftovers that didn't fit into full chests are never settled, since room may have been made
+ * since. Hoppers and players change slots either by replacing the stack or by changing its
+ * count, both of which make the slot dirty again.
+ *
+ * <p>Trackers are kept per input chest for the lifetime of the server. Only used on the server thread.
+ */
+public final class InputSlotTracker {
+    private record Key(ResourceKey<Level> dimension, long chest) {}
+
+    private static final Map<Key, InputSlotTracker> trackers = new HashMap<>();
+
+    private long categoryVersion = -1;
+    private ItemStack[] stacks = new ItemStack[0];
+    private int[] counts = new int[0];
+
+    private InputSlotTracker() {}
+
+    /**
+     * Gets the tracker for an input chest, creating an empty one on first use.
+     */
+    public static InputSlotTracker forInput(ServerLevel world, BlockPos chestPos) {
+        Key key = new Key(world.dimension(), ContainerHelper.chestKey(chestPos, world));
+        return trackers.computeIfAbsent(key, k -> new InputSlotTracker());
+    }
+
+    /**
+     * Returns the slots that still hold exactly what the last sort settled. Nothing is clean
+     * after the categories were reloaded.
+     */
+    public BitSet cleanSlots(Container container) {
+        BitSet clean = new BitSet();
+        if (categoryVersion != CategoryLoader.getSnapshot().getVersion()) return clean;
+        int size = Math.min(stacks.length, container.getContainerSize());
+        for (int slot = 0; slot < size; slot++) {
+            ItemStack recorded = stacks[slot];
+            if (recorded != null && container.getItem(slot) == recorded && recorded.getCount() == counts[slot]) {
+                clean.set(slot);
+            }
+        }
+        return clean;
+    }
+
+    /**
+     * Records the settled slots after a sort. The stacks are compared by identity later, so they
+     * must be the container's own stacks, read after the sort was applied.
+     */
+    public void record(Container container, BitSet settled) {
+        categoryVersion = CategoryLoader.getSnapshot().getVersion();
+        stacks = new ItemStack[container.getContainerSize()];
+        counts = new int[stacks.length];
+        for (int slot = settled.nextSetBit(0); slot >= 0 && slot < stacks.length; slot = settled.nextSetBit(slot + 1)) {
+            ItemStack stack = container.getItem(slot);
+            if (stack.isEmpty()) continue;
+            stacks[slot] = stack;
+            counts[slot] = stack.getCount();
+        }
+    }
+
+    /**
+     * Forgets the tracker of a chest broken at the given position, so trackers don't pile up.
+     * Called from the block break event, before the block is gone, so breaking either half of
+     * a double chest finds the key the tracker is stored under.
+     */
+    public static void markChanged(Level level, BlockPos pos) {
+        if (trackers.isEmpty() || !(level instanceof ServerLevel world)) return;
+        trackers.remove(new Key(world.dimension(), ContainerHelper.chestKey(pos, world)));
+    }
+
+    public static void clearAll() {
+        trackers.clear();
+    }
+}
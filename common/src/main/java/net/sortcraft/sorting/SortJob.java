@@ -0,0 +1,244 @@
+package net.sortcraft.sorting;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+import net.sortcraft.audit.SortAuditLog;
+import net.sortcraft.container.ContainerHelper;
+import net.sortcraft.container.ItemKey;
+import net.sortcraft.container.SortContext;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A sort of one input container that can be spread over several server ticks.
+ *
+ * <p>The container's slots are grouped up front the same way {@link SortingEngine} groups
+ * stacks: identical stacks form one unit of work, and every container stack (bundle, shulker
+ * box) is a unit of its own. Each {@link #step(long)} processes units until its time budget is
+ * used up, always finishing the unit it started. The {@link SortContext} and its caches are kept
+ * for the whole job.
+ *
+ * <p>Between steps players and hoppers may change the input container, so each unit re-reads its
+ * slots and only sorts stacks that still match the unit's item. Destination chests are resolved
+ * and indexed again on every later step. If the input container is gone, the job is aborted.
+ *
+ * <p>Slots known to be clean (see {@link InputSlotTracker}) can be skipped; their items are still
+ * reported as unknown. The job tracks which slots it settled, and only cleans up slots it sorted.
+ */
+public final class SortJob {
+    private final SortContext context;
+    private final ServerLevel world;
+    private final Supplier<Container> source;
+    private final boolean preview;
+    private final SortAuditLog audit;
+    private final SortingResults results = new SortingResults();
+    private final List<Unit> units;
+    private final int totalStacks;
+    // Slots left holding a stack no category matches
+    private final BitSet settled = new BitSet();
+    private int cursor = 0;
+    private int processedStacks = 0;
+    private int steps = 0;
+    private long elapsedNanos = 0;
+    private boolean aborted = false;
+
+    // Slots of the input container holding stacks of one item, in slot order
+    private record Unit(ItemKey key, int[] slots) {}
+
+    /**
+     * @param context The sort context, kept for the lifetime of the job
+     * @param world The server level where sorting takes place
+     * @param source Supplies the container to sort items FROM, or null once it no longer exists
+     * @param preview If true, only calculate what would be sorted without actually moving items
+     * @param audit Optional audit log to record item movements (can be null to disable logging)
+     */
+    public SortJob(SortContext context, ServerLevel world, Supplier<Container> source, boolean preview, SortAuditLog audit) {
+        this(context, world, source, preview, audit, new BitSet());
+    }
+
+    /**
+     * @param context The sort context, kept for the lifetime of the job
+     * @param world The server level where sorting takes place
+     * @param source Supplies the container to sort items FROM, or null once it no longer exists
+     * @param preview If true, only calculate what would be sorted without actually moving items
+     * @param audit Optional audit log to record item movements (can be null to disable logging)
+     * @param cleanSlots Slots to skip because they hold stacks no category matches, unchanged since the last sort
+     */
+    public SortJob(SortContext context, ServerLevel world, Supplier<Container> source, boolean preview, SortAuditLog audit,
+                   BitSet cleanSlots) {
+        this.context = context;
+        this.world = world;
+        this.source = source;
+        this.preview = preview;
+        this.audit = audit;
+
+        Container container = source.get();
+        this.units = container != null ? planUnits(container, cleanSlots) : List.of();
+        int stacks = 0;
+        for (Unit unit : units) stacks += unit.slots.length;
+        this.totalStacks = stacks;
+        if (container == null) aborted = true;
+    }
+
+    /**
+     * Groups the container's slots by item, keeping the order each item was first seen.
+     * Container stacks get one unit per slot, in the position of their group. Clean slots are
+     * left out, and their items reported as unknown right away.
+     */
+    private List<Unit> planUnits(Container container, BitSet cleanSlots) {
+        Map<ItemKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int slot = 0; slot < container.getContainerSize(); slot++) {
+            ItemStack stack = container.getItem(slot);
+            if (stack.isEmpty()) continue;
+            if (cleanSlots.get(slot)) {
+                results.unknownItems.add(BuiltInRegistries.ITEM.getKey(stack.getItem()).toString());
+                settled.set(slot);
+                continue;
+            }
+            List<Integer> group = groups.get(ItemKey.lookup(stack));
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(ItemKey.of(stack), group);
+            }
+            group.add(slot);
+        }
+
+        List<Unit> units = new ArrayList<>();
+        for (Map.Entry<ItemKey, List<Integer>> entry : groups.entrySet()) {
+            List<Integer> slots = entry.getValue();
+            if (ContainerHelper.getStacksIfContainer(entry.getKey().getStack()) != null) {
+                for (int slot : slots) units.add(new Unit(entry.getKey(), new int[]{slot}));
+            } else {
+                units.add(new Unit(entry.getKey(), slots.stream().mapToInt(Integer::intValue).toArray()));
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Sorts units until the budget is used up or the job is done. At least one unit is
+     * processed per call. Empty stacks left in the input container are cleaned up before
+     * returning, so the container is always safe to save between steps.
+     *
+     * @param budgetNanos How long this step may run, in nanoseconds
+     * @return true if the job is done (finished or aborted)
+     */
+    public boolean step(long budgetNanos) {
+        if (isDone()) return true;
+        long start = System.nanoTime();
+
+        Container container = source.get();
+        if (container == null) {
+            aborted = true;
+            return true;
+        }
+        // Chests may have been placed, broken, filled or emptied since the last step
+        if (steps++ > 0) context.forgetResolvedChests();
+
+        BitSet touched = new BitSet();
+        do {
+            Unit unit = units.get(cursor++);
+            List<ItemStack> group = new ArrayList<>(unit.slots.length);
+            BitSet groupSlots = new BitSet();
+            for (int slot : unit.slots) {
+                if (slot >= container.getContainerSize()) continue;
+                ItemStack stack = container.getItem(slot);
+                if (!stack.isEmpty() && unit.key.equals(ItemKey.lookup(stack))) {
+                    group.add(stack);
+                    groupSlots.set(slot);
+                }
+            }
+            touched.or(groupSlots);
+            if (!group.isEmpty()) {
+                int sortedBefore = results.sorted;
+                int overflowedBefore = results.overflowed;
+                SortingEngine.sortGroup(context, world, group, preview, results, audit);
+                // Nothing moved and nothing overflowed: no category matches these stacks
+                if (results.sorted == sortedBefore && results.overflowed == overflowedBefore
+                        && ContainerHelper.getStacksIfContainer(unit.key.getStack()) == null) {
+                    settled.or(groupSlots);
+                }
+            }
+            processedStacks += unit.slots.length;
+        } while (cursor < units.size() && System.nanoTime() - start < budgetNanos);
+
+        // Clean up empty stacks (count=0) left behind by shrink() to prevent chunk save errors
+        if (!preview) {
+            for (int slot = touched.nextSetBit(0); slot >= 0; slot = touched.nextSetBit(slot + 1)) {
+                if (container.getItem(slot).isEmpty()) container.setItem(slot, ItemStack.EMPTY);
+            }
+        }
+
+        elapsedNanos += System.nanoTime() - start;
+        return isDone();
+    }
+
+    /**
+     * Returns true once every unit has been processed or the job was aborted.
+     */
+    public boolean isDone() {
+        return aborted || cursor >= units.size();
+    }
+
+    /**
+     * Returns true if the input container disappeared before the job finished.
+     * Results then only cover the stacks sorted so far.
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public boolean isPreview() {
+        return preview;
+    }
+
+    public SortingResults getResults() {
+        return results;
+    }
+
+    public SortAuditLog getAudit() {
+        return audit;
+    }
+
+    /**
+     * Returns the slots left holding a stack no category matches, for {@link InputSlotTracker#record}.
+     */
+    public BitSet getSettledSlots() {
+        return settled;
+    }
+
+    /**
+     * Returns the number of input stacks processed so far.
+     */
+    public int getProcessedStacks() {
+        return processedStacks;
+    }
+
+    /**
+     * Returns the number of non-empty input stacks when the job was created.
+     */
+    public int getTotalStacks() {
+        return totalStacks;
+    }
+
+    /**
+     * Returns the number of steps run so far.
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the time spent in {@link #step(long)} so far, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,299 @@
+package net.sortcraft.sorting;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.sortcraft.config.ConfigManager;
+import net.sortcraft.container.ContainerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Server-wide queue of {@link SortTask}s, run on the server thread within a time budget per tick
+ * (see {@link ConfigManager#getSortTickBudgetNanos()}).
+ *
+ * <ul>
+ *   <li>Requests for an input container that is already queued or sorting are merged into the
+ *       existing task; the new requester is told about its result too. Repeat requests from the
+ *       same requester add nothing.</li>
+ *   <li>Each requester (a player, or the input itself for automatic sorts) has one task running at a
+ *       time. Queued tasks are started round-robin between requesters.</li>
+ *   <li>A task only starts while fewer than {@link ConfigManager#getMaxSortsPerNetwork()} running tasks
+ *       could reach the same destination chests. Destinations are found by looking for category signs
+ *       around the task's search center, so two tasks can only share one if their search areas overlap
+ *       horizontally; that overlap is what counts as the same storage network. It's an approximation:
+ *       overlapping tasks may still use entirely different chests.</li>
+ * </ul>
+ *
+ * <p>A task that can start right away gets its first step immediately, so small sorts still finish
+ * within the tick they were requested in. Running tasks continue at the end of later ticks, sharing
+ * that tick's budget; tasks that didn't get to run go first on the next tick.
+ */
+public final class SortJobScheduler {
+    private SortJobScheduler() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
+
+    /**
+     * Receives updates about a scheduled task. Called on the server thread.
+     */
+    public interface Listener {
+        /**
+         * Called after each in-tick step that didn't finish the task.
+         */
+        default void onProgress(SortTask task) {}
+
+        /**
+         * Called once when the task is done, including when it was aborted.
+         */
+        void onComplete(SortTask task);
+
+        /**
+         * Called once instead of {@link #onComplete} when a step of the task threw. Items already
+         * moved stay where they are, the rest stay in the input container, and the task's results
+         * may be null. Calls {@link #onComplete} by default.
+         */
+        default void onFailed(SortTask task, RuntimeException error) {
+            onComplete(task);
+        }
+    }
+
+    /**
+     * Identifies a sort request: the input chest (either half of a double chest gives the same key)
+     * and whether it's a preview.
+     */
+    public record InputKey(ResourceKey<Level> dimension, long chest, boolean preview) {
+        public static InputKey of(ServerLevel world, BlockPos chestPos, boolean preview) {
+            return new InputKey(world.dimension(), ContainerHelper.chestKey(chestPos, world), preview);
+        }
+    }
+
+    /** The horizontal area a task looks for category signs in. */
+    private record SearchArea(ResourceKey<Level> dimension, int minX, int maxX, int minZ, int maxZ) {
+        static SearchArea of(ResourceKey<Level> dimension, SortTask task) {
+            BlockPos center = task.getSearchCenter();
+            int radius = task.getSearchRadius();
+            return new SearchArea(dimension, center.getX() - radius, center.getX() + radius,
+                    center.getZ() - radius, center.getZ() + radius);
+        }
+
+        boolean overlaps(SearchArea other) {
+            return dimension.equals(other.dimension)
+                    && minX <= other.maxX && other.minX <= maxX
+                    && minZ <= other.maxZ && other.minZ <= maxZ;
+        }
+    }
+
+    private static final class Entry {
+        final InputKey key;
+        final SearchArea area;
+        final Object owner;
+        final SortTask task;
+        // Requester -> listener, in request order
+        final Map<Object, Listener> listeners = new LinkedHashMap<>();
+
+        Entry(InputKey key, Object owner, SortTask task) {
+            this.key = key;
+            this.area = SearchArea.of(key.dimension(), task);
+            this.owner = owner;
+            this.task = task;
+        }
+    }
+
+    private static final Map<InputKey, Entry> entries = new HashMap<>();
+    // Waiting tasks per requester, requesters in round-robin order
+    private static final Map<Object, ArrayDeque<Entry>> queued = new LinkedHashMap<>();
+    private static final List<Entry> running = new ArrayList<>();
+    private static final Set<Object> runningOwners = new HashSet<>();
+    // Tasks started and not finished yet; unlike running, never cleared during a tick
+    private static final List<Entry> started = new ArrayList<>();
+
+    /**
+     * Requests a sort of an input container, unless one is already queued or running for it.
+     *
+     * @param key The input container the request is for
+     * @param owner Who the request is from, used for fairness and to merge repeat requests
+     * @param task Creates the task; only called if no task for the input exists yet
+     * @param listener Receives the result
+     * @return true if a new task was created, false if the request was merged into an existing one
+     */
+    public static boolean submit(InputKey key, Object owner, Supplier<SortTask> task, Listener listener) {
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            existing.listeners.putIfAbsent(owner, listener);
+            LOGGER.debug("[sortjob] Merged sort request for {} into the pending one", BlockPos.of(key.chest()));
+            return false;
+        }
+
+        BlockPos pos = BlockPos.of(key.chest());
+        Entry entry = new Entry(key, owner, task.get());
+        entry.listeners.put(owner, listener);
+        entries.put(key, entry);
+        queued.computeIfAbsent(owner, o -> new ArrayDeque<>()).add(entry);
+
+        startQueued();
+        if (running.contains(entry) && run(entry, ConfigManager.getSortTickBudgetNanos())) {
+            running.remove(entry);
+        } else {
+            LOGGER.debug("[sortjob] Sort of {} continues on later ticks", pos);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if a sort of the input container requested by {@code owner} is queued or running.
+     */
+    public static boolean isPending(InputKey key, Object owner) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.listeners.containsKey(owner);
+    }
+
+    /**
+     * Starts queued tasks and continues running ones until this tick's budget is used up.
+     * Registered as a server tick handler.
+     */
+    public static void tick(MinecraftServer server) {
+        startQueued();
+        if (running.isEmpty()) return;
+        long deadline = System.nanoTime() + ConfigManager.getSortTickBudgetNanos();
+
+        // Listeners may submit new tasks while this runs, so work on a copy
+        List<Entry> turn = new ArrayList<>(running);
+        running.clear();
+        List<Entry> ran = new ArrayList<>();
+        int next = 0;
+        while (next < turn.size()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            Entry entry = turn.get(next++);
+            // Cancelled by a listener earlier in this turn
+            if (entries.get(entry.key) != entry) continue;
+            if (!run(entry, remaining)) ran.add(entry);
+        }
+
+        // Tasks that didn't get to run go first next tick, tasks that ran go to the back of the line
+        List<Entry> order = new ArrayList<>(turn.subList(next, turn.size()));
+        order.addAll(running);
+        order.addAll(ran);
+        order.removeIf(entry -> entries.get(entry.key) != entry);
+        running.clear();
+        running.addAll(order);
+    }
+
+    /**
+     * Starts queued tasks, one requester at a time in turn, as long as the requester has nothing
+     * running and fewer than the cap of started tasks share the task's network.
+     */
+    private static void startQueued() {
+        int cap = ConfigManager.getMaxSortsPerNetwork();
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (Iterator<Map.Entry<Object, ArrayDeque<Entry>>> it = queued.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Object, ArrayDeque<Entry>> requester = it.next();
+                if (runningOwners.contains(requester.getKey())) continue;
+
+                Entry entry = null;
+                for (Entry candidate : requester.getValue()) {
+                    if (countSharingNetwork(candidate) < cap) {
+                        entry = candidate;
+                        break;
+                    }
+                }
+                if (entry == null) continue;
+
+                requester.getValue().remove(entry);
+                it.remove();
+                // Requesters that still have work queued go to the back of the line
+                if (!requester.getValue().isEmpty()) {
+                    queued.put(requester.getKey(), requester.getValue());
+                }
+                running.add(entry);
+                runningOwners.add(entry.owner);
+                started.add(entry);
+                progress = true;
+                break;
+            }
+        }
+    }
+
+    private static int countSharingNetwork(Entry entry) {
+        int count = 0;
+        for (Entry other : started) {
+            if (other.area.overlaps(entry.area)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Steps a running task, and releases its slot and notifies its listeners if it's done or failed.
+     */
+    private static boolean run(Entry entry, long budgetNanos) {
+        boolean done;
+        try {
+            done = entry.task.step(budgetNanos);
+        } catch (RuntimeException err) {
+            LOGGER.error("Error running sort job", err);
+            release(entry);
+            for (Listener listener : entry.listeners.values()) listener.onFailed(entry.task, err);
+            return true;
+        }
+
+        if (!done) {
+            if (!entry.task.isPlanning()) {
+                for (Listener listener : entry.listeners.values()) listener.onProgress(entry.task);
+            }
+            return false;
+        }
+
+        release(entry);
+        for (Listener listener : entry.listeners.values()) listener.onComplete(entry.task);
+        return true;
+    }
+
+    private static void release(Entry entry) {
+        entries.remove(entry.key);
+        runningOwners.remove(entry.owner);
+        started.remove(entry);
+    }
+
+    /**
+     * Returns the number of tasks queued or running.
+     */
+    public static int getPendingCount() {
+        return entries.size();
+    }
+
+    /**
+     * Drops the task for one input container without finishing it or notifying its listeners.
+     * Items not sorted yet stay in the input container. Other tasks are left alone.
+     */
+    public static void cancel(InputKey key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return;
+        ArrayDeque<Entry> waiting = queued.get(entry.owner);
+        if (waiting != null && waiting.remove(entry) && waiting.isEmpty()) queued.remove(entry.owner);
+        running.remove(entry);
+        if (started.contains(entry)) {
+            release(entry);
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Drops all tasks without finishing them. Items not sorted yet stay in their input containers.
+     */
+    public static void clearAll() {
+        entries.clear();
+        queued.clear();
+        running.clear();
+        runningOwners.clear();
+        started.clear();
+    }
+}
@@ -0,0 +1,260 @@
+package net.sortcraft.sorting;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Container;
+import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.item.ItemStack;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.category.CategoryNode;
+import net.sortcraft.container.ChestRef;
+import net.sortcraft.container.ContainerHelper;
+import net.sortcraft.container.SortContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A sort computed on a worker thread and applied on the server thread.
+ *
+ * <p>Planning runs in four stages:
+ * <ol>
+ *   <li>Server thread: the input container's stacks are copied.</li>
+ *   <li>Worker: the categories the copies (and their container contents) can match are collected.</li>
+ *   <li>Server thread: those categories' chests are resolved and their stacks copied.</li>
+ *   <li>Worker: {@link SortingEngine} sorts the input copy into the destination copies, and every
+ *       slot that ended up different becomes a planned write.</li>
+ * </ol>
+ *
+ * <p>{@link #apply()} then checks on the server thread that every slot about to be written still
+ * holds what the plan saw, and writes them all, or none if anything changed in between. Callers
+ * fall back to sorting in the tick (see {@link SortJob}) when a plan can't be applied.
+ *
+ * <p>Audit logging isn't supported; audited sorts don't use plans.
+ */
+public final class SortPlan {
+    private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
+
+    private static final ExecutorService PLAN_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sortcraft-plan");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // One chest (single or double) as the plan saw it; slots holds the original stacks
+    private record Target(BlockPos pos, ItemStack[] slots, SimpleContainer copy) {}
+
+    private record SlotWrite(int target, int slot, ItemStack expected, ItemStack planned) {}
+
+    private final ServerLevel world;
+    private final Supplier<Container> source;
+    private final ItemStack[] inputSlots;
+    private final BitSet cleanSlots;
+    private final List<Target> targets = new ArrayList<>();
+    private final List<SlotWrite> writes = new ArrayList<>();
+    private SortingResults results;
+    private BitSet settledSlots;
+
+    private SortPlan(ServerLevel world, Supplier<Container> source, ItemStack[] inputSlots, BitSet cleanSlots) {
+        this.world = world;
+        this.source = source;
+        this.inputSlots = inputSlots;
+        this.cleanSlots = cleanSlots;
+    }
+
+    /**
+     * Plans a sort on the sort worker thread. Must be called on the server thread.
+     *
+     * @param context The sort context used to find destination chests
+     * @param world The server level where sorting takes place
+     * @param source Supplies the container to sort items FROM, or null once it no longer exists
+     * @param cleanSlots Input slots to skip, see {@link InputSlotTracker}
+     * @return The plan, completed on the worker thread once planning is done
+     */
+    public static CompletableFuture<SortPlan> prepare(SortContext context, ServerLevel world, Supplier<Container> source,
+                                                      BitSet cleanSlots) {
+        return prepare(context, world, source, cleanSlots, PLAN_EXECUTOR, world.getServer());
+    }
+
+    /**
+     * Plans a sort, running the planning stages on {@code worker} and the world access on {@code server}.
+     * Must be called on the server thread.
+     */
+    public static CompletableFuture<SortPlan> prepare(SortContext context, ServerLevel world, Supplier<Container> source,
+                                                      BitSet cleanSlots, Executor worker, Executor server) {
+        Container input = source.get();
+        if (input == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Input container is gone"));
+        }
+        ItemStack[] inputSlots = new ItemStack[input.getContainerSize()];
+        for (int slot = 0; slot < inputSlots.length; slot++) inputSlots[slot] = input.getItem(slot).copy();
+        SortPlan plan = new SortPlan(world, source, inputSlots, (BitSet) cleanSlots.clone());
+
+        return CompletableFuture.supplyAsync(plan::collectCategoryNames, worker)
+                .thenApplyAsync(names -> plan.copyDestinations(context, names), server)
+                .thenApplyAsync(chests -> {
+                    plan.compute(context, chests);
+                    return plan;
+                }, worker);
+    }
+
+    /**
+     * Collects every category the input stacks could be sorted into, including the categories of
+     * container contents. A superset is fine; it only costs copying a few more chests.
+     */
+    private Set<String> collectCategoryNames() {
+        Set<String> names = new HashSet<>();
+        for (int slot = 0; slot < inputSlots.length; slot++) {
+            if (!inputSlots[slot].isEmpty() && !cleanSlots.get(slot)) collectCategoryNames(inputSlots[slot], names);
+        }
+        return names;
+    }
+
+    private static void collectCategoryNames(ItemStack stack, Set<String> names) {
+        for (CategoryNode category : CategoryLoader.getMatchingCategories(stack)) names.add(category.name);
+        Iterable<ItemStack> contents = ContainerHelper.getStacksIfContainer(stack);
+        if (contents == null) return;
+        for (ItemStack inner : contents) {
+            if (inner.isEmpty()) continue;
+            collectCategoryNames(inner, names);
+            // Uniform containers are sorted by their contents' unfiltered categories
+            for (CategoryNode category : CategoryLoader.getMatchingCategoriesNoFilter(inner.getItem())) {
+                names.add(category.name);
+            }
+        }
+    }
+
+    /**
+     * Resolves the categories' chests and copies their stacks. Runs on the server thread.
+     * A chest reached through several categories, or through either half of a double chest,
+     * is copied once.
+     */
+    private Map<String, List<ChestRef>> copyDestinations(SortContext context, Set<String> names) {
+        Map<Long, SimpleContainer> copies = new HashMap<>();
+        Map<String, List<ChestRef>> chests = new HashMap<>();
+        for (String name : names) {
+            List<ChestRef> refs = SortingEngine.findCategoryChests(context, world, name);
+            List<ChestRef> copied = new ArrayList<>(refs.size());
+            for (ChestRef ref : refs) {
+                SimpleContainer copy = copies.computeIfAbsent(ContainerHelper.chestKey(ref.getPos(), world), key -> copyTarget(ref));
+                copied.add(new ChestRef(ref.getPos(), copy));
+            }
+            chests.put(name, copied);
+        }
+        return chests;
+    }
+
+    private SimpleContainer copyTarget(ChestRef ref) {
+        Container container = ref.getInventory();
+        ItemStack[] slots = new ItemStack[container.getContainerSize()];
+        SimpleContainer copy = new SimpleContainer(slots.length);
+        for (int slot = 0; slot < slots.length; slot++) {
+            slots[slot] = container.getItem(slot).copy();
+            copy.setItem(slot, slots[slot].copy());
+        }
+        targets.add(new Target(ref.getPos(), slots, copy));
+        return copy;
+    }
+
+    /**
+     * Sorts the input copy into the destination copies and records the slots that changed. Runs on the worker.
+     */
+    private void compute(SortContext context, Map<String, List<ChestRef>> chests) {
+        SimpleContainer input = new SimpleContainer(inputSlots.length);
+        for (int slot = 0; slot < inputSlots.length; slot++) input.setItem(slot, inputSlots[slot].copy());
+
+        PlanningContext planning = new PlanningContext(context, chests);
+        SortJob job = new SortJob(planning, world, () -> input, false, null, cleanSlots);
+        job.step(Long.MAX_VALUE);
+        results = job.getResults();
+        settledSlots = job.getSettledSlots();
+
+        // Target -1 is the input container
+        diff(-1, inputSlots, input);
+        for (int target = 0; target < targets.size(); target++) {
+            diff(target, targets.get(target).slots, targets.get(target).copy);
+        }
+        LOGGER.debug("[sortplan] Planned {} items sorted with {} slot writes", results.sorted, writes.size());
+    }
+
+    private void diff(int target, ItemStack[] before, Container after) {
+        for (int slot = 0; slot < before.length; slot++) {
+            ItemStack planned = after.getItem(slot);
+            if (!ItemStack.matches(before[slot], planned)) {
+                writes.add(new SlotWrite(target, slot, before[slot], planned.isEmpty() ? ItemStack.EMPTY : planned));
+            }
+        }
+    }
+
+    /**
+     * Applies the plan if every slot it writes still holds what the plan saw. Must be called on the
+     * server thread, once.
+     *
+     * @return true if the plan was applied, false if a container changed and nothing was written
+     */
+    public boolean apply() {
+        Container[] containers = new Container[targets.size() + 1];
+        containers[0] = source.get();
+        for (int target = 0; target < targets.size(); target++) {
+            containers[target + 1] = ContainerHelper.getChestContainer(world, targets.get(target).pos).orElse(null);
+        }
+
+        Container[] touched = new Container[containers.length];
+        for (SlotWrite write : writes) {
+            Container container = containers[write.target + 1];
+            if (container == null || write.slot >= container.getContainerSize()
+                    || !ItemStack.matches(container.getItem(write.slot), write.expected)) {
+                LOGGER.debug("[sortplan] Container changed since planning, discarding plan");
+                return false;
+            }
+            touched[write.target + 1] = container;
+        }
+
+        for (SlotWrite write : writes) {
+            containers[write.target + 1].setItem(write.slot, write.planned.copy());
+        }
+        for (Container container : touched) {
+            if (container != null) container.setChanged();
+        }
+        return true;
+    }
+
+    /**
+     * Returns what the plan sorts. Only meaningful once {@link #apply()} succeeded.
+     */
+    public SortingResults getResults() {
+        return results;
+    }
+
+    /**
+     * Returns the input slots the plan settled, see {@link SortJob#getSettledSlots()}.
+     */
+    public BitSet getSettledSlots() {
+        return settledSlots;
+    }
+
+    /**
+     * Sort context whose category chests are the copies made for the plan, so the engine never
+     * touches the world from the worker. Categories that weren't copied have no chests.
+     */
+    private static final class PlanningContext extends SortContext {
+        private final Map<String, List<ChestRef>> chests;
+
+        PlanningContext(SortContext context, Map<String, List<ChestRef>> chests) {
+            super(context.getWorld(), context.getCenterPos(), 0);
+            this.chests = chests;
+        }
+
+        @Override
+        public List<ChestRef> getCategoryChests(String categoryName, Function<String, List<ChestRef>> resolver) {
+            return chests.getOrDefault(categoryName, List.of());
+        }
+    }
+}
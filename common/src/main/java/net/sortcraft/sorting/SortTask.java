@@ -0,0 +1,163 @@
+package net.sortcraft.sorting;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Container;
+import net.sortcraft.audit.SortAuditLog;
+import net.sortcraft.container.SortContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * The sort of one input container as run by {@link SortJobScheduler}: either a {@link SortPlan}
+ * worked out on the plan worker and applied on the server thread, or a {@link SortJob} stepped
+ * in the tick. A plan that fails or can't be applied falls back to a job.
+ *
+ * <p>With an {@link InputSlotTracker}, slots the previous sort settled and nobody touched since
+ * are skipped, and the tracker is updated once the sort is done. Previews always look at every slot.
+ *
+ * <p>The audit entry, if any, is completed and logged when the task is done.
+ */
+public final class SortTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger("sortcraft");
+
+    private final SortContext context;
+    private final ServerLevel world;
+    private final Supplier<Container> source;
+    private final boolean preview;
+    private final SortAuditLog audit;
+    private final boolean planned;
+    private final InputSlotTracker tracker;
+    private CompletableFuture<SortPlan> plan;
+    private SortJob job;
+    private SortingResults results;
+
+    /**
+     * @param context The sort context, kept for the lifetime of the task
+     * @param world The server level where sorting takes place
+     * @param source Supplies the container to sort items FROM, or null once it no longer exists
+     * @param preview If true, only calculate what would be sorted without actually moving items
+     * @param audit Optional audit log to record item movements (can be null to disable logging)
+     * @param planned If true, try a {@link SortPlan} first; ignored for previews and audited sorts
+     * @param tracker Tracker of the input container's settled slots, or null to sort every slot
+     */
+    public SortTask(SortContext context, ServerLevel world, Supplier<Container> source, boolean preview,
+                    SortAuditLog audit, boolean planned, InputSlotTracker tracker) {
+        this.context = context;
+        this.world = world;
+        this.source = source;
+        this.preview = preview;
+        this.audit = audit;
+        this.planned = planned && !preview && audit == null;
+        this.tracker = preview ? null : tracker;
+    }
+
+    /**
+     * Starts or continues the task. Must be called on the server thread.
+     *
+     * @param budgetNanos How long this step may run, in nanoseconds
+     * @return true if the task is done
+     */
+    boolean step(long budgetNanos) {
+        if (results != null) return true;
+
+        if (planned && job == null) {
+            if (plan == null) {
+                plan = SortPlan.prepare(context, world, source, cleanSlots());
+                return false;
+            }
+            if (!plan.isDone()) return false;
+            try {
+                SortPlan ready = plan.join();
+                if (ready.apply()) {
+                    results = ready.getResults();
+                    recordSettled(ready.getSettledSlots());
+                    return true;
+                }
+            } catch (CompletionException err) {
+                LOGGER.warn("Sort planning failed, sorting in the tick instead", err.getCause());
+            }
+            // Chests may have been placed or broken while planning
+            context.forgetResolvedChests();
+        }
+
+        if (job == null) job = new SortJob(context, world, source, preview, audit, cleanSlots());
+        if (!job.step(budgetNanos)) return false;
+        results = job.getResults();
+        if (!job.isAborted()) recordSettled(job.getSettledSlots());
+
+        // Complete and log the audit entry
+        if (audit != null) {
+            audit.completeAndLog(results);
+        }
+        return true;
+    }
+
+    private BitSet cleanSlots() {
+        Container container = tracker != null ? source.get() : null;
+        return container != null ? tracker.cleanSlots(container) : new BitSet();
+    }
+
+    private void recordSettled(BitSet settled) {
+        Container container = tracker != null ? source.get() : null;
+        if (container != null) tracker.record(container, settled);
+    }
+
+    /**
+     * Returns true if the task is still waiting for its plan.
+     */
+    public boolean isPlanning() {
+        return plan != null && job == null && results == null;
+    }
+
+    /**
+     * Returns true if the input container disappeared before the task finished.
+     */
+    public boolean isAborted() {
+        return job != null && job.isAborted();
+    }
+
+    public boolean isPreview() {
+        return preview;
+    }
+
+    /**
+     * Returns the center of the area this task looks for category signs in.
+     */
+    public BlockPos getSearchCenter() {
+        return context.getCenterPos();
+    }
+
+    /**
+     * Returns the radius of the area this task looks for category signs in.
+     */
+    public int getSearchRadius() {
+        return context.getSignRadius();
+    }
+
+    /**
+     * Returns what was sorted, or null until the task is done.
+     */
+    public SortingResults getResults() {
+        return results;
+    }
+
+    /**
+     * Returns the number of input stacks processed so far by the in-tick job, 0 while planning.
+     */
+    public int getProcessedStacks() {
+        return job != null ? job.getProcessedStacks() : 0;
+    }
+
+    /**
+     * Returns the number of input stacks of the in-tick job, 0 while planning.
+     */
+    public int getTotalStacks() {
+        return job != null ? job.getTotalStacks() : 0;
+    }
+}
@@ -7,6 +7,7 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.component.BundleContents;
 import net.minecraft.world.item.component.ItemContainerContents;
@@ -21,6 +22,8 @@ import net.sortcraft.category.CategoryNode;
 import net.sortcraft.command.CommandHandler;
 import net.sortcraft.container.ChestRef;
 import net.sortcraft.container.ContainerHelper;
+import net.sortcraft.container.DestinationInventory;
+import net.sortcraft.container.ItemKey;
 import net.sortcraft.container.SortContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -86,105 +89,176 @@ public final class SortingEngine {
      */
     public static SortingResults sortFromContainer(SortContext context, ServerLevel world, Container sourceContainer,
                                                    boolean preview, SortAuditLog audit) {
-        SortingResults results = sortStacks(context, world, ContainerHelper.containerToIterable(sourceContainer), preview, audit);
-
-        // Clean up empty stacks (count=0) left behind by shrink() to prevent chunk save errors
-        if (!preview) {
-            cleanupContainer(sourceContainer);
-        }
-
-        return results;
+        SortJob job = new SortJob(context, world, () -> sourceContainer, preview, audit);
+        job.step(Long.MAX_VALUE);
+        return job.getResults();
     }
 
     /**
      * Internal method that sorts items from an iterable into categorized chests.
      * Handles containers (bundles, shulker boxes) recursively.
+     *
+     * <p>Identical stacks (same item and components) are grouped first and sorted as one bulk
+     * quantity, so category matching, audit metadata and destination lookups happen once per
+     * distinct item. The audit log still gets one movement per source stack. Whatever doesn't
+     * fit is written back to the source stacks, leaving the remainder in the last stacks of the
+     * group as if each stack had been sorted in order.
      * Note: Callers must handle cleanup of source containers if using containerToIterable().
      */
     private static SortingResults sortStacks(SortContext context, ServerLevel world, Iterable<ItemStack> stacks,
                                              boolean preview, SortAuditLog audit) {
         SortingResults results = new SortingResults();
+        for (List<ItemStack> group : groupStacks(stacks)) {
+            sortGroup(context, world, group, preview, results, audit);
+        }
+        return results;
+    }
+
+    /**
+     * Sorts one group of identical stacks, as built by {@link #groupStacks}. Container stacks
+     * are sorted one by one; anything else is sorted as a single bulk quantity.
+     */
+    static void sortGroup(SortContext context, ServerLevel world, List<ItemStack> group, boolean preview,
+                          SortingResults results, SortAuditLog audit) {
+        ItemStack first = group.getFirst();
+        if (ContainerHelper.getStacksIfContainer(first) != null) {
+            for (ItemStack stack : group) {
+                sortContainerStack(context, world, preview, stack, results, audit);
+            }
+            return;
+        }
+
+        int total = 0;
+        for (ItemStack stack : group) total += stack.getCount();
+
+        LOGGER.debug("[sortinput] Sorting {} of {} from {} stack(s)", total, first.getItem().toString(), group.size());
+
+        // Track items processed for audit
+        if (audit != null) {
+            audit.recordItemsProcessed(total);
+        }
+
+        ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(first.getItem());
+        List<CategoryNode> cats = CategoryLoader.getMatchingCategories(first);
+        ItemStack bulk = first.copyWithCount(total);
+        int[] sourceCounts = new int[group.size()];
+        for (int i = 0; i < sourceCounts.length; i++) sourceCounts[i] = group.get(i).getCount();
+        int moved = sortSingleStack(context, world, preview, bulk, cats, itemId, results, audit, null, sourceCounts);
+
+        // Take the moved items from the source stacks in order; the rest stay behind as leftovers
+        int toTake = moved;
+        for (ItemStack stack : group) {
+            int take = Math.min(stack.getCount(), toTake);
+            boolean leftover = take < stack.getCount();
+            toTake -= take;
+            if (!preview) stack.shrink(take);
+            if (leftover) results.leftovers.add(stack);
+        }
+    }
 
+    /**
+     * Groups non-empty stacks by item and components, keeping the order each item was first seen.
+     */
+    private static Collection<List<ItemStack>> groupStacks(Iterable<ItemStack> stacks) {
+        Map<ItemKey, List<ItemStack>> groups = new LinkedHashMap<>();
         for (ItemStack stack : stacks) {
             if (stack.isEmpty()) continue;
+            List<ItemStack> group = groups.get(ItemKey.lookup(stack));
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(ItemKey.of(stack), group);
+            }
+            group.add(stack);
+        }
+        return groups.values();
+    }
 
-            LOGGER.debug("[sortinput] Sorting {} of {}", stack.getCount(), stack.getItem().toString());
+    /**
+     * Sorts a single container stack (bundle or shulker box). Uniform containers are sorted
+     * as a whole; otherwise the contents are sorted and the container itself is sorted
+     * once it's empty.
+     */
+    private static void sortContainerStack(SortContext context, ServerLevel world, boolean preview, ItemStack stack,
+                                           SortingResults results, SortAuditLog audit) {
+        LOGGER.debug("[sortinput] Sorting {} of {}", stack.getCount(), stack.getItem().toString());
 
-            // Track items processed for audit
-            if (audit != null) {
-                audit.recordItemsProcessed(stack.getCount());
-            }
+        // Track items processed for audit
+        if (audit != null) {
+            audit.recordItemsProcessed(stack.getCount());
+        }
 
-            // Check if this is a container (bundle or shulker box)
-            Iterable<ItemStack> innerStacks = ContainerHelper.getStacksIfContainer(stack);
-            if (innerStacks != null) {
-                UniformContainerCheckResult uniformCheck = checkUniformContainerContents(innerStacks, UNIFORM_CONTAINER_THRESHOLD);
-                if (uniformCheck.meetsThreshold()) {
-                    LOGGER.debug("[sortinput] Container has >={} stacks of same item '{}'. Sorting container itself.",
-                            UNIFORM_CONTAINER_THRESHOLD, uniformCheck.uniformItemId());
-
-                    // Use the uniform item's categories, but record the actual container in the audit
-                    List<CategoryNode> cats = CategoryLoader.getMatchingCategoriesNoFilter(uniformCheck.uniformItemId());
-                    ResourceLocation containerItemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
-
-                    // Create uniform contents info for audit
-                    net.sortcraft.audit.UniformContainerContents uniformContents =
-                            new net.sortcraft.audit.UniformContainerContents(
-                                    uniformCheck.uniformItemId().toString(),
-                                    uniformCheck.stackCount(),
-                                    uniformCheck.totalItemCount()
-                            );
-
-                    sortSingleStack(context, world, preview, stack, cats, containerItemId, results, audit, uniformContents);
-                    continue;
-                }
+        Iterable<ItemStack> innerStacks = ContainerHelper.getStacksIfContainer(stack);
+        UniformContainerCheckResult uniformCheck = checkUniformContainerContents(innerStacks, UNIFORM_CONTAINER_THRESHOLD);
+        if (uniformCheck.meetsThreshold()) {
+            LOGGER.debug("[sortinput] Container has >={} stacks of same item '{}'. Sorting container itself.",
+                    UNIFORM_CONTAINER_THRESHOLD, uniformCheck.uniformItemId());
+
+            // Use the uniform item's categories, but record the actual container in the audit
+            List<CategoryNode> cats = CategoryLoader.getMatchingCategoriesNoFilter(uniformCheck.uniformItem());
+            ResourceLocation containerItemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
+
+            // Create uniform contents info for audit
+            net.sortcraft.audit.UniformContainerContents uniformContents =
+                    new net.sortcraft.audit.UniformContainerContents(
+                            uniformCheck.uniformItemId().toString(),
+                            uniformCheck.stackCount(),
+                            uniformCheck.totalItemCount()
+                    );
+
+            int stackSize = stack.getCount();
+            int moved = sortSingleStack(context, world, preview, stack, cats, containerItemId, results, audit, uniformContents);
+            if (moved < stackSize) results.leftovers.add(stack);
+            return;
+        }
 
-                LOGGER.debug("[sortinput] Item is a container. Sorting contents of container.");
-                SortingResults innerResults = sortStacks(context, world, innerStacks, preview, audit);
-                results.sorted += innerResults.sorted;
-                results.overflowCategories.addAll(innerResults.overflowCategories);
-                results.unknownItems.addAll(innerResults.unknownItems);
-                innerResults.categoryCounts.forEach((category, cnt) ->
-                        results.categoryCounts.merge(category, cnt, Integer::sum)
-                );
-
-                if (!preview) {
-                    if (ContainerHelper.isBundle(stack)) {
-                        BundleContents bundleContents;
-                        if (innerResults.leftovers.isEmpty()) bundleContents = new BundleContents(List.of());
-                        else bundleContents = new BundleContents(innerResults.leftovers);
-                        stack.set(DataComponents.BUNDLE_CONTENTS, bundleContents);
-                    } else {
-                        NonNullList<ItemStack> restored = NonNullList.withSize(ContainerHelper.SHULKER_BOX_SIZE, ItemStack.EMPTY);
-                        for (int i = 0; i < innerResults.leftovers.size() && i < ContainerHelper.SHULKER_BOX_SIZE; i++) {
-                            restored.set(i, innerResults.leftovers.get(i));
-                        }
-                        stack.set(DataComponents.CONTAINER, ItemContainerContents.fromItems(restored));
-                    }
-                }
+        LOGGER.debug("[sortinput] Item is a container. Sorting contents of container.");
+        SortingResults innerResults = sortStacks(context, world, innerStacks, preview, audit);
+        results.sorted += innerResults.sorted;
+        results.overflowCategories.addAll(innerResults.overflowCategories);
+        results.overflowed += innerResults.overflowed;
+        results.unknownItems.addAll(innerResults.unknownItems);
+        innerResults.categoryCounts.forEach((category, cnt) ->
+                results.categoryCounts.merge(category, cnt, Integer::sum)
+        );
 
-                if (!innerResults.leftovers.isEmpty()) {
-                    LOGGER.debug("[sortinput] Inner container not completely emptied, giving up further sorting.");
-                    results.leftovers.add(stack);
-                    continue;
+        if (!preview) {
+            if (ContainerHelper.isBundle(stack)) {
+                BundleContents bundleContents;
+                if (innerResults.leftovers.isEmpty()) bundleContents = new BundleContents(List.of());
+                else bundleContents = new BundleContents(innerResults.leftovers);
+                stack.set(DataComponents.BUNDLE_CONTENTS, bundleContents);
+            } else {
+                NonNullList<ItemStack> restored = NonNullList.withSize(ContainerHelper.SHULKER_BOX_SIZE, ItemStack.EMPTY);
+                for (int i = 0; i < innerResults.leftovers.size() && i < ContainerHelper.SHULKER_BOX_SIZE; i++) {
+                    restored.set(i, innerResults.leftovers.get(i));
                 }
+                stack.set(DataComponents.CONTAINER, ItemContainerContents.fromItems(restored));
             }
+        }
 
-            ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
-            List<CategoryNode> cats = CategoryLoader.getMatchingCategories(stack);
-            sortSingleStack(context, world, preview, stack, cats, itemId, results, audit);
+        if (!innerResults.leftovers.isEmpty()) {
+            LOGGER.debug("[sortinput] Inner container not completely emptied, giving up further sorting.");
+            results.leftovers.add(stack);
+            return;
         }
-        return results;
+
+        ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
+        List<CategoryNode> cats = CategoryLoader.getMatchingCategories(stack);
+        int stackSize = stack.getCount();
+        int moved = sortSingleStack(context, world, preview, stack, cats, itemId, results, audit, null);
+        if (moved < stackSize) results.leftovers.add(stack);
     }
 
     /**
      * Result of checking if a container has uniform contents meeting the threshold.
      *
+     * @param uniformItem     The item if uniform and meets threshold, null otherwise
      * @param uniformItemId   The item ID if uniform and meets threshold, null otherwise
      * @param stackCount      Number of non-empty stacks in the container
      * @param totalItemCount  Total number of items across all stacks
      */
     private record UniformContainerCheckResult(
+            Item uniformItem,
             ResourceLocation uniformItemId,
             int stackCount,
             int totalItemCount
@@ -199,44 +273,60 @@ public final class SortingEngine {
      * Returns detailed information about the contents for audit purposes.
      */
     private static UniformContainerCheckResult checkUniformContainerContents(Iterable<ItemStack> stacks, int threshold) {
-        ResourceLocation singleItem = null;
+        Item singleItem = null;
         int stackCount = 0;
         int totalItemCount = 0;
 
         for (ItemStack stack : stacks) {
             if (stack.isEmpty()) continue;
-            ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
+            Item item = stack.getItem();
 
             if (singleItem == null) {
-                singleItem = itemId;
-            } else if (!singleItem.equals(itemId)) {
+                singleItem = item;
+            } else if (singleItem != item) {
                 // Mixed items - return result indicating not uniform
-                return new UniformContainerCheckResult(null, 0, 0);
+                return new UniformContainerCheckResult(null, null, 0, 0);
             }
             stackCount++;
             totalItemCount += stack.getCount();
         }
 
         if (stackCount >= threshold) {
-            return new UniformContainerCheckResult(singleItem, stackCount, totalItemCount);
+            return new UniformContainerCheckResult(singleItem, BuiltInRegistries.ITEM.getKey(singleItem), stackCount, totalItemCount);
         }
-        return new UniformContainerCheckResult(null, stackCount, totalItemCount);
+        return new UniformContainerCheckResult(null, null, stackCount, totalItemCount);
     }
 
-    private static void sortSingleStack(SortContext context, ServerLevel world, boolean preview, ItemStack stack,
-                                        List<CategoryNode> cats, ResourceLocation itemId, SortingResults results,
-                                        SortAuditLog audit) {
-        sortSingleStack(context, world, preview, stack, cats, itemId, results, audit, null);
+    /** Items moved into one category's chests, before they're split up by source stack for the audit log. */
+    private record Movement(String category, BlockPos destPos, int count) {}
+
+    /**
+     * Distributes a stack to the chests of its matching categories, in priority order.
+     * Callers are responsible for recording leftovers.
+     *
+     * @return The number of items that were (or would be) moved
+     */
+    private static int sortSingleStack(SortContext context, ServerLevel world, boolean preview, ItemStack stack,
+                                       List<CategoryNode> cats, ResourceLocation itemId, SortingResults results,
+                                       SortAuditLog audit, net.sortcraft.audit.UniformContainerContents uniformContents) {
+        return sortSingleStack(context, world, preview, stack, cats, itemId, results, audit, uniformContents,
+                new int[] {stack.getCount()});
     }
 
-    private static void sortSingleStack(SortContext context, ServerLevel world, boolean preview, ItemStack stack,
-                                        List<CategoryNode> cats, ResourceLocation itemId, SortingResults results,
-                                        SortAuditLog audit, net.sortcraft.audit.UniformContainerContents uniformContents) {
+    /**
+     * Distributes a stack made up of one or more source stacks. Audit movements are recorded per
+     * source stack, taking the moved items from the source stacks in order.
+     *
+     * @param sourceCounts The counts of the source stacks, adding up to the stack's count
+     */
+    private static int sortSingleStack(SortContext context, ServerLevel world, boolean preview, ItemStack stack,
+                                       List<CategoryNode> cats, ResourceLocation itemId, SortingResults results,
+                                       SortAuditLog audit, net.sortcraft.audit.UniformContainerContents uniformContents,
+                                       int[] sourceCounts) {
         if (cats.isEmpty()) {
             LOGGER.debug("[sortinput] No categories found for item: {}", itemId);
             results.unknownItems.add(itemId.toString());
-            results.leftovers.add(stack);
-            return;
+            return 0;
         }
 
         int stackSize = stack.getCount();
@@ -261,32 +351,63 @@ public final class SortingEngine {
             }
         }
 
+        List<Movement> movements = new ArrayList<>();
         for (CategoryNode category : cats) {
             List<ChestRef> categoryChests = findCategoryChests(context, world, category.name);
             if (categoryChests.isEmpty()) continue;
 
-            int moved = distributeToChests(stack, categoryChests, preview);
+            int moved = distributeToChests(context, stack, categoryChests, preview);
             totalMoved += moved;
             if (moved > 0) {
                 results.sorted += moved;
                 results.categoryCounts.merge(category.name, moved, Integer::sum);
                 LOGGER.debug("[sortinput] Moved {} of item {}", moved, itemId);
 
-                // Record movement in audit log with pre-extracted metadata
                 if (audit != null) {
                     BlockPos destPos = categoryChests.isEmpty() ? null : categoryChests.get(0).getPos();
-                    boolean partial = totalMoved < stackSize;
-                    audit.recordMovement(itemId.toString(), moved, category.name, destPos, partial, preExtractedMetadata);
+                    movements.add(new Movement(category.name, destPos, moved));
                 }
 
                 if (preview && totalMoved >= stackSize) break;
             }
         }
 
+        // Record movements in audit log with pre-extracted metadata
+        if (audit != null) {
+            recordMovements(audit, itemId.toString(), movements, sourceCounts, preExtractedMetadata);
+        }
+
         if (totalMoved < stackSize) {
             LOGGER.debug("[sortinput] Overflow: Could not store (all of) item '{}' -> categories '{}'", itemId, categoriesStr);
             results.overflowCategories.add(cats.getFirst().name);
-            results.leftovers.add(stack);
+            results.overflowed += stackSize - totalMoved;
+        }
+        return totalMoved;
+    }
+
+    /**
+     * Records one audit movement per source stack and category. A movement is partial if its
+     * source stack wasn't moved entirely by the end of it.
+     */
+    private static void recordMovements(SortAuditLog audit, String itemId, List<Movement> movements,
+                                        int[] sourceCounts, net.sortcraft.audit.ItemMetadata metadata) {
+        int source = 0;
+        int movedFromSource = 0;
+        for (Movement movement : movements) {
+            int remaining = movement.count();
+            while (remaining > 0 && source < sourceCounts.length) {
+                int take = Math.min(remaining, sourceCounts[source] - movedFromSource);
+                remaining -= take;
+                movedFromSource += take;
+                if (take > 0) {
+                    boolean partial = movedFromSource < sourceCounts[source];
+                    audit.recordMovement(itemId, take, movement.category(), movement.destPos(), partial, metadata);
+                }
+                if (movedFromSource >= sourceCounts[source]) {
+                    source++;
+                    movedFromSource = 0;
+                }
+            }
         }
     }
 
@@ -297,12 +418,18 @@ public final class SortingEngine {
      * all chests in the vertical stack attached to that sign. Chests are returned
      * in bottom-to-top order for filling.
      *
+     * <p>Results, including missing signs, are cached in the context for the rest of the operation.
+     *
      * @param context The sort context with cached sign positions
      * @param world The server level
      * @param categoryName The category name to search for (without brackets)
      * @return List of ChestRef objects for the category's chests, or empty list if not found
      */
     public static List<ChestRef> findCategoryChests(SortContext context, ServerLevel world, String categoryName) {
+        return context.getCategoryChests(categoryName, name -> resolveCategoryChests(context, world, name));
+    }
+
+    private static List<ChestRef> resolveCategoryChests(SortContext context, ServerLevel world, String categoryName) {
         String signText = CommandHandler.formatSignText(categoryName);
         SignBlockEntity sign = context.findSign(signText);
 
@@ -331,52 +458,43 @@ public final class SortingEngine {
     /**
      * Distributes items from a stack to the given chests.
      *
-     * <p>Items are distributed using a two-pass algorithm:
-     * <ol>
-     *   <li>First pass: merge with existing stacks of the same item type</li>
-     *   <li>Second pass: fill empty slots with new stacks</li>
-     * </ol>
-     *
-     * <p>Chests are processed in order (typically bottom-to-top for vertical stacks).
+     * <p>Each chest first tops up existing stacks of the same item type, then fills empty slots.
+     * Chests are processed in order (typically bottom-to-top for vertical stacks).
+     * Slot lookups go through the context's {@link DestinationInventory} for each chest,
+     * so a chest's slots are only scanned once per operation.
      * In preview mode, the stack is not modified.
      *
+     * @param context The sort context holding the destination slot indexes
      * @param stack The item stack to distribute (will be shrunk by the amount moved unless preview)
      * @param chests The destination chests to fill
      * @param preview If true, calculate space without actually moving items
      * @return The number of items that were (or would be) moved
      */
-    public static int distributeToChests(ItemStack stack, List<ChestRef> chests, boolean preview) {
+    public static int distributeToChests(SortContext context, ItemStack stack, List<ChestRef> chests, boolean preview) {
         int originalCount = stack.getCount();
         int toSort = originalCount;
-        int maxStackSize = Math.min(stack.getMaxStackSize(), 64);
 
         for (ChestRef ref : chests) {
-            Container inv = ref.getInventory();
-
-            // First pass: merge with existing stacks
-            for (int slot = 0; slot < inv.getContainerSize() && toSort > 0; slot++) {
-                ItemStack target = inv.getItem(slot);
-                if (!target.isEmpty() && ItemStack.isSameItemSameComponents(stack, target) && target.getCount() < target.getMaxStackSize()) {
-                    int space = target.getMaxStackSize() - target.getCount();
-                    int move = Math.min(space, toSort);
-                    if (!preview) target.grow(move);
-                    toSort -= move;
-                }
-            }
+            toSort -= context.getDestinationInventory(ref.getInventory()).insert(stack, toSort, preview);
+            if (toSort == 0) break;
+        }
 
-            // Second pass: fill empty slots
-            for (int slot = 0; slot < inv.getContainerSize() && toSort > 0; slot++) {
-                if (inv.getItem(slot).isEmpty()) {
-                    int move = Math.min(toSort, maxStackSize);
-                    if (!preview) {
-                        ItemStack toPut = stack.copy();
-                        toPut.setCount(move);
-                        inv.setItem(slot, toPut);
-                    }
-                    toSort -= move;
-                }
-            }
+        int moved = originalCount - toSort;
+        if (!preview) stack.shrink(moved);
+        return moved;
+    }
 
+    /**
+     * Distributes items from a stack to the given chests without a sort context.
+     * Builds a throwaway slot index for each chest; prefer
+     * {@link #distributeToChests(SortContext, ItemStack, List, boolean)} when sorting many stacks.
+     */
+    public static int distributeToChests(ItemStack stack, List<ChestRef> chests, boolean preview) {
+        int originalCount = stack.getCount();
+        int toSort = originalCount;
+
+        for (ChestRef ref : chests) {
+            toSort -= new DestinationInventory(ref.getInventory()).insert(stack, toSort, preview);
             if (toSort == 0) break;
         }
 
@@ -11,6 +11,8 @@ public class SortingResults {
     public int sorted = 0;
     public final Set<String> unknownItems = new HashSet<>();
     public final Set<String> overflowCategories = new HashSet<>();
+    // Items that matched a category but didn't fit in its chests
+    public int overflowed = 0;
     public final List<ItemStack> leftovers = new ArrayList<>();
     public final Map<String, Integer> categoryCounts = new HashMap<>();
 }
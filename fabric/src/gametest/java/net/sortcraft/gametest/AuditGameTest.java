@@ -726,4 +726,39 @@ public class AuditGameTest {
 
         helper.succeed();
     }
+
+    // ========== Test 13: Identical Stacks Audited Per Stack ==========
+
+    /**
+     * Verifies identical stacks, which are sorted together, still get one movement each.
+     * Setup: cobblestone category, input with two stacks of 10 cobblestone
+     * Expects: Two complete movements of 10 cobblestone
+     */
+    @GameTest
+    public void auditRecordsIdenticalStacksSeparately(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.STORAGE);
+
+        var positions = TestScenarios.multiCategory(helper, "cobblestone");
+        BlockPos inputPos = positions.get("input");
+        TestHelper.insertItems(helper, inputPos,
+                new ItemStack(Items.COBBLESTONE, 10),
+                new ItemStack(Items.COBBLESTONE, 10)
+        );
+
+        TestHelper.AuditedSortResult result = TestHelper.executeSortWithAudit(helper, inputPos, 10);
+        SortAuditEntry entry = result.auditEntry();
+
+        if (entry.movements().size() != 2) {
+            helper.fail(Component.literal("Expected one movement per stack but got: " + entry.movements()));
+            return;
+        }
+        for (var recorded : entry.movements()) {
+            if (recorded.quantity() != 10 || recorded.partial()) {
+                helper.fail(Component.literal("Expected each stack to be moved entirely but got: " + recorded));
+                return;
+            }
+        }
+
+        helper.succeed();
+    }
 }
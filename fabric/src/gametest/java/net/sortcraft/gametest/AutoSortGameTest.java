@@ -0,0 +1,241 @@
+package net.sortcraft.gametest;
+
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.config.ConfigManager;
+import net.sortcraft.sorting.AutoSorter;
+import net.sortcraft.sorting.SortJobScheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameTests for automatic sorting of [auto] input chests.
+ * Ticks are driven by calling {@link AutoSorter#tick} directly, so no server tick runs in between.
+ */
+public class AutoSortGameTest {
+    private static final BlockPos INPUT_POS = new BlockPos(1, 1, 1);
+    private static final BlockPos CATEGORY_POS = new BlockPos(3, 1, 1);
+
+    private static SignBlockEntity setupAutoInput(GameTestHelper helper) {
+        TestHelper.placeSingleChest(helper, INPUT_POS, Direction.NORTH);
+        SignBlockEntity sign = TestHelper.placeSignOnChest(helper, INPUT_POS, Direction.NORTH, "[input]", "[auto]");
+        TestHelper.placeSingleChest(helper, CATEGORY_POS, Direction.NORTH);
+        TestHelper.placeCategorySign(helper, CATEGORY_POS, Direction.NORTH, "swords");
+        return sign;
+    }
+
+    /**
+     * Returns the key automatic sorts of the input chest are queued under, also used as their requester.
+     */
+    private static SortJobScheduler.InputKey inputKey(GameTestHelper helper) {
+        return SortJobScheduler.InputKey.of(helper.getLevel(), helper.absolutePos(INPUT_POS), false);
+    }
+
+    /**
+     * Returns true once an automatic sort of the input chest was submitted.
+     * A planned sort is still pending here, one that ran in the tick already moved the items.
+     */
+    private static boolean sortStarted(GameTestHelper helper) {
+        SortJobScheduler.InputKey key = inputKey(helper);
+        return SortJobScheduler.isPending(key, key) || !TestHelper.isChestEmpty(helper, CATEGORY_POS);
+    }
+
+    /**
+     * Test that an input sign without an [auto] line isn't watched.
+     */
+    @GameTest
+    public void plainInputSignIsNotWatched(GameTestHelper helper) {
+        SortingTestSetup setup = TestScenarios.basicInputAndCategory(helper, "swords");
+        SignBlockEntity sign = helper.getBlockEntity(setup.inputPos().relative(Direction.NORTH), SignBlockEntity.class);
+
+        if (AutoSorter.watch(helper.getLevel(), sign)) {
+            helper.fail(Component.literal("Plain [input] sign should not be watched"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a watched chest is sorted once enough stacks are waiting, and not before.
+     */
+    @GameTest
+    public void sortsOnceEnoughStacksArrive(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SignBlockEntity sign = setupAutoInput(helper);
+        if (!AutoSorter.watch(helper.getLevel(), sign)) {
+            helper.fail(Component.literal("[auto] input sign should be watched"));
+            return;
+        }
+
+        try {
+            for (int i = 1; i < ConfigManager.getAutoSortMinStacks(); i++) {
+                TestHelper.insertItems(helper, INPUT_POS, new ItemStack(Items.DIAMOND_SWORD));
+            }
+            AutoSorter.tick(helper.getLevel().getServer());
+            if (sortStarted(helper)) {
+                helper.fail(Component.literal("Sort should wait for more stacks"));
+                return;
+            }
+
+            TestHelper.insertItems(helper, INPUT_POS, new ItemStack(Items.DIAMOND_SWORD));
+            AutoSorter.tick(helper.getLevel().getServer());
+            if (!sortStarted(helper)) {
+                helper.fail(Component.literal("Sort should start once " + ConfigManager.getAutoSortMinStacks()
+                    + " stacks are waiting"));
+                return;
+            }
+        } finally {
+            SortJobScheduler.cancel(inputKey(helper));
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a few waiting stacks are sorted once the chest stayed unchanged long enough.
+     */
+    @GameTest
+    public void sortsAfterChestIsIdle(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SignBlockEntity sign = setupAutoInput(helper);
+        AutoSorter.watch(helper.getLevel(), sign);
+
+        try {
+            TestHelper.insertItems(helper, INPUT_POS, new ItemStack(Items.DIAMOND_SWORD));
+            AutoSorter.tick(helper.getLevel().getServer());
+            for (int tick = 0; tick < ConfigManager.getAutoSortIdleTicks(); tick++) {
+                if (sortStarted(helper)) {
+                    helper.fail(Component.literal("Sort started after only " + tick + " idle ticks"));
+                    return;
+                }
+                AutoSorter.tick(helper.getLevel().getServer());
+            }
+            if (!sortStarted(helper)) {
+                helper.fail(Component.literal("Sort should start after " + ConfigManager.getAutoSortIdleTicks()
+                    + " idle ticks"));
+                return;
+            }
+        } finally {
+            SortJobScheduler.cancel(inputKey(helper));
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that leftovers which didn't fit don't make the chest due again when one more stack arrives.
+     */
+    @GameTest(maxTicks = 100)
+    public void leftoversDoNotCountAsWaiting(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SignBlockEntity sign = setupAutoInput(helper);
+        for (int i = 0; i < 27; i++) {
+            TestHelper.insertItems(helper, CATEGORY_POS, new ItemStack(Items.DIAMOND_SWORD));
+        }
+        AutoSorter.watch(helper.getLevel(), sign);
+        for (int i = 0; i < ConfigManager.getAutoSortMinStacks(); i++) {
+            TestHelper.insertItems(helper, INPUT_POS, new ItemStack(Items.IRON_SWORD));
+        }
+        SortJobScheduler.InputKey key = inputKey(helper);
+        AutoSorter.tick(helper.getLevel().getServer());
+        if (!SortJobScheduler.isPending(key, key)) {
+            helper.fail(Component.literal("Sort should start once " + ConfigManager.getAutoSortMinStacks()
+                + " stacks are waiting"));
+            return;
+        }
+
+        helper.startSequence()
+            .thenWaitUntil(() -> {
+                if (SortJobScheduler.isPending(key, key)) helper.fail(Component.literal("Sort still running"));
+            })
+            .thenExecute(() -> {
+                if (TestHelper.countItemsInChest(helper, INPUT_POS, Items.IRON_SWORD) != ConfigManager.getAutoSortMinStacks()) {
+                    helper.fail(Component.literal("Swords should be left over, the category chest is full"));
+                }
+                // One new stack, like a hopper transfer, next to the leftovers
+                TestHelper.insertItems(helper, INPUT_POS, new ItemStack(Items.IRON_SWORD));
+                AutoSorter.tick(helper.getLevel().getServer());
+                if (SortJobScheduler.isPending(key, key)) {
+                    SortJobScheduler.cancel(key);
+                    helper.fail(Component.literal("Leftovers from the last sort should not count as waiting"));
+                }
+            })
+            .thenSucceed();
+    }
+
+    /**
+     * Test that ticks skip watched chests while the startup category load is still running,
+     * instead of waiting for it on the server thread, and sort them once it's done.
+     */
+    @GameTest(maxTicks = 200)
+    public void tickDoesNotWaitForStartupLoad(GameTestHelper helper) {
+        Path categoriesDir;
+        try {
+            categoriesDir = Files.createTempDirectory("sortcraft-autosort");
+            Files.writeString(categoriesDir.resolve("swords.yaml"), TestCategories.SWORDS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        SignBlockEntity sign = setupAutoInput(helper);
+        AutoSorter.watch(helper.getLevel(), sign);
+        for (int i = 0; i < ConfigManager.getAutoSortMinStacks(); i++) {
+            TestHelper.insertItems(helper, INPUT_POS, new ItemStack(Items.DIAMOND_SWORD));
+        }
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?> load = CategoryLoader.startLoading(categoriesDir, "gametest", () -> {
+            try {
+                // Bounded, so a tick that does wait only stalls the server for a while
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            long startNanos = System.nanoTime();
+            AutoSorter.tick(helper.getLevel().getServer());
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            if (elapsedMillis > 1000) {
+                helper.fail(Component.literal("Tick waited " + elapsedMillis + " ms for the category load"));
+                return;
+            }
+            if (sortStarted(helper)) {
+                helper.fail(Component.literal("Sort should not start before categories are loaded"));
+                return;
+            }
+        } finally {
+            release.countDown();
+        }
+
+        helper.startSequence()
+            .thenWaitUntil(() -> {
+                if (!load.isDone()) helper.fail(Component.literal("Categories still loading"));
+            })
+            .thenExecute(() -> {
+                AutoSorter.tick(helper.getLevel().getServer());
+                boolean started = sortStarted(helper);
+                SortJobScheduler.cancel(inputKey(helper));
+                if (!started) helper.fail(Component.literal("Sort should start once categories are loaded"));
+            })
+            .thenSucceed();
+    }
+}
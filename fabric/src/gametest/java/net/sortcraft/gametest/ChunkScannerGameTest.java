@@ -0,0 +1,90 @@
+package net.sortcraft.gametest;
+
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.WallSignBlock;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.sortcraft.container.ChunkScanner;
+import net.sortcraft.container.ScanMode;
+import net.sortcraft.container.SortContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GameTests for scanning signs chunk by chunk in both scan modes.
+ * Uses a larger structure so a chunk boundary always runs through it.
+ */
+public class ChunkScannerGameTest {
+
+    /**
+     * Finds the wall signs within the radius using one scan mode, and returns the closest one
+     * (with {@link ChunkScanner#isCloser}'s tie-break) as the first element.
+     */
+    private static List<BlockPos> scanSigns(ServerLevel level, BlockPos center, int radius, ScanMode mode) {
+        List<BlockPos> found = new ArrayList<>();
+        if (mode == ScanMode.BLOCK_ENTITIES) {
+            ChunkScanner.forEachBlockEntity(level, center, radius, be -> {
+                if (be instanceof SignBlockEntity && be.getBlockState().getBlock() instanceof WallSignBlock) {
+                    found.add(be.getBlockPos());
+                }
+            });
+        } else {
+            ChunkScanner.forEachMatchingBlock(level, center, radius,
+                state -> state.getBlock() instanceof WallSignBlock, (pos, state) -> found.add(pos.immutable()));
+        }
+        found.sort((a, b) -> a.equals(b) ? 0 : ChunkScanner.isCloser(a, b, center) ? -1 : 1);
+        return found;
+    }
+
+    /**
+     * Test that signs on both sides of a chunk boundary are found in both scan modes, and that two
+     * signs equally far from the center resolve to the same one: the lower x, since z and y are equal.
+     */
+    @GameTest(structure = "sortcraft-gametest:empty_32x32")
+    public void signsAcrossChunkBoundaryFoundInBothModes(GameTestHelper helper) {
+        // First relative x whose absolute x starts a new chunk
+        int originX = helper.absolutePos(BlockPos.ZERO).getX();
+        int boundaryX = 1;
+        while (((originX + boundaryX) & 15) != 0) boundaryX++;
+
+        // Two signs one block either side of the center, in different chunks
+        BlockPos centerPos = new BlockPos(boundaryX, 1, 2);
+        BlockPos leftChest = new BlockPos(boundaryX - 1, 1, 3);
+        BlockPos rightChest = new BlockPos(boundaryX + 1, 1, 3);
+        TestHelper.placeSingleChest(helper, leftChest, Direction.NORTH);
+        TestHelper.placeSingleChest(helper, rightChest, Direction.NORTH);
+        TestHelper.placeCategorySign(helper, leftChest, Direction.NORTH, "swords");
+        TestHelper.placeCategorySign(helper, rightChest, Direction.NORTH, "swords");
+
+        ServerLevel level = helper.getLevel();
+        BlockPos absCenter = helper.absolutePos(centerPos);
+        BlockPos absLeftSign = helper.absolutePos(leftChest.relative(Direction.NORTH));
+        BlockPos absRightSign = helper.absolutePos(rightChest.relative(Direction.NORTH));
+
+        for (ScanMode mode : ScanMode.values()) {
+            List<BlockPos> found = scanSigns(level, absCenter, 5, mode);
+            if (!found.contains(absLeftSign) || !found.contains(absRightSign)) {
+                helper.fail(Component.literal(mode + " should find the signs on both sides of the chunk boundary, found " + found));
+                return;
+            }
+            if (!found.get(0).equals(absLeftSign)) {
+                helper.fail(Component.literal(mode + " tie-break should pick " + absLeftSign + " but picked " + found.get(0)));
+                return;
+            }
+        }
+
+        SignBlockEntity nearest = new SortContext(level, absCenter, 5).findSign("[swords]");
+        if (nearest == null || !nearest.getBlockPos().equals(absLeftSign)) {
+            helper.fail(Component.literal("Sign lookup should pick the same sign as the scan, got "
+                + (nearest == null ? "none" : nearest.getBlockPos())));
+            return;
+        }
+
+        helper.succeed();
+    }
+}
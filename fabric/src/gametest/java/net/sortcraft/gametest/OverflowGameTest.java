@@ -270,4 +270,38 @@ public class OverflowGameTest {
 
         helper.succeed();
     }
+
+    /**
+     * Test that when identical stacks only partly fit, the first stacks are sorted
+     * and the remainder stays in the later input slots.
+     */
+    @GameTest
+    public void identicalStacksOverflowKeepsRemainderInLaterSlots(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.COBBLESTONE);
+
+        // Category chest has 1 free slot (64 capacity)
+        SortingTestSetup setup = TestScenarios.inputWithPrefilledCategory(
+            helper, "cobblestone", ItemQuantity.stacks(Items.COBBLESTONE, 26));
+
+        TestHelper.insertItems(helper, setup.inputPos(),
+            new ItemStack(Items.COBBLESTONE, 64),
+            new ItemStack(Items.COBBLESTONE, 64),
+            new ItemStack(Items.COBBLESTONE, 32)
+        );
+
+        TestHelper.executeSort(helper, setup.inputPos());
+
+        if (!TestHelper.getItemAt(helper, setup.inputPos(), 0).isEmpty()) {
+            helper.fail(Component.literal("Expected first input stack to be sorted"));
+            return;
+        }
+        int second = TestHelper.getItemAt(helper, setup.inputPos(), 1).getCount();
+        int third = TestHelper.getItemAt(helper, setup.inputPos(), 2).getCount();
+        if (second != 64 || third != 32) {
+            helper.fail(Component.literal("Expected 64 and 32 left in input slots 1 and 2 but found " + second + " and " + third));
+            return;
+        }
+
+        helper.succeed();
+    }
 }
@@ -0,0 +1,188 @@
+package net.sortcraft.gametest;
+
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.SignBlockEntity;
+import net.sortcraft.container.SignIndex;
+import net.sortcraft.container.SortContext;
+import net.sortcraft.sorting.SortingEngine;
+
+/**
+ * GameTests for the persistent per-level sign index.
+ * Tests that indexed lookups see placed, edited and removed signs.
+ */
+public class SignIndexGameTest {
+
+    private static SortContext indexedContext(GameTestHelper helper, BlockPos centerPos) {
+        ServerLevel level = helper.getLevel();
+        return new SortContext(level, helper.absolutePos(centerPos), 5, SignIndex.forLevel(level));
+    }
+
+    /**
+     * Test that sorting through the index finds the category sign.
+     */
+    @GameTest
+    public void indexedSortFindsCategorySign(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords", new ItemStack(Items.DIAMOND_SWORD));
+
+        Container inputContainer = TestHelper.getChestContainer(helper, setup.inputPos());
+        SortingEngine.sortFromContainer(indexedContext(helper, setup.inputPos()), helper.getLevel(), inputContainer, false);
+
+        int swordCount = TestHelper.countItemsInChest(helper, setup.categoryPos(), Items.DIAMOND_SWORD);
+        if (swordCount != 1) {
+            helper.fail(Component.literal("Expected 1 sword in category but found " + swordCount));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that editing a sign's text is picked up by the next lookup.
+     */
+    @GameTest
+    public void indexPicksUpEditedSignText(GameTestHelper helper) {
+        BlockPos chestPos = new BlockPos(3, 1, 1);
+        TestHelper.placeSingleChest(helper, chestPos, Direction.NORTH);
+        SignBlockEntity sign = TestHelper.placeCategorySign(helper, chestPos, Direction.NORTH, "swords");
+
+        if (indexedContext(helper, chestPos).findSign("[swords]") == null) {
+            helper.fail(Component.literal("Expected [swords] sign to be indexed"));
+            return;
+        }
+
+        sign.setText(sign.getFrontText().setMessage(0, Component.literal("[axes]")), true);
+
+        SortContext context = indexedContext(helper, chestPos);
+        if (context.findSign("[axes]") == null) {
+            helper.fail(Component.literal("Expected edited [axes] sign to be found"));
+            return;
+        }
+        if (context.findSign("[swords]") != null) {
+            helper.fail(Component.literal("Expected old [swords] text to be dropped from the index"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a removed sign is no longer returned.
+     */
+    @GameTest
+    public void indexDropsRemovedSign(GameTestHelper helper) {
+        BlockPos chestPos = new BlockPos(3, 1, 1);
+        TestHelper.placeSingleChest(helper, chestPos, Direction.NORTH);
+        TestHelper.placeCategorySign(helper, chestPos, Direction.NORTH, "swords");
+
+        if (indexedContext(helper, chestPos).findSign("[swords]") == null) {
+            helper.fail(Component.literal("Expected [swords] sign to be indexed"));
+            return;
+        }
+
+        helper.setBlock(chestPos.relative(Direction.NORTH), Blocks.AIR.defaultBlockState());
+
+        if (indexedContext(helper, chestPos).findSign("[swords]") != null) {
+            helper.fail(Component.literal("Expected removed sign to be dropped from the index"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a sign replacing another block entity without an event is picked up once an event
+     * elsewhere in the same chunk re-indexes it, even though the chunk's block entity count stays the same.
+     */
+    @GameTest
+    public void indexPicksUpSignReplacingBlockEntity(GameTestHelper helper) {
+        BlockPos chestPos = new BlockPos(3, 1, 1);
+        TestHelper.placeSingleChest(helper, chestPos, Direction.NORTH);
+        helper.setBlock(chestPos.relative(Direction.NORTH), Blocks.BARREL.defaultBlockState());
+
+        if (indexedContext(helper, chestPos).findSign("[swords]") != null) {
+            helper.fail(Component.literal("No [swords] sign should be indexed yet"));
+            return;
+        }
+
+        // Like /setblock: the barrel is replaced in place, so no block entity is added
+        TestHelper.placeCategorySign(helper, chestPos, Direction.NORTH, "swords");
+
+        // A block placed by a player somewhere else in the same chunk
+        BlockPos signPos = helper.absolutePos(chestPos.relative(Direction.NORTH));
+        SignIndex.markChanged(helper.getLevel(), new BlockPos(signPos.getX() & ~15, signPos.getY(), signPos.getZ() & ~15));
+
+        if (indexedContext(helper, chestPos).findSign("[swords]") == null) {
+            helper.fail(Component.literal("Expected [swords] sign that replaced the barrel to be found"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a sign added without an event is picked up because the chunk's block entity count changed.
+     */
+    @GameTest
+    public void indexPicksUpSignAddedWithoutEvent(GameTestHelper helper) {
+        BlockPos chestPos = new BlockPos(3, 1, 1);
+        TestHelper.placeSingleChest(helper, chestPos, Direction.NORTH);
+
+        if (indexedContext(helper, chestPos).findSign("[swords]") != null) {
+            helper.fail(Component.literal("No [swords] sign should be indexed yet"));
+            return;
+        }
+
+        TestHelper.placeCategorySign(helper, chestPos, Direction.NORTH, "swords");
+
+        if (indexedContext(helper, chestPos).findSign("[swords]") == null) {
+            helper.fail(Component.literal("Expected [swords] sign placed without an event to be found"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a lookup skips the closest indexed sign if it has gone since the last refresh
+     * and returns the next closest one.
+     */
+    @GameTest
+    public void findNearestSkipsStaleClosestSign(GameTestHelper helper) {
+        BlockPos nearChest = new BlockPos(1, 1, 1);
+        BlockPos farChest = new BlockPos(4, 1, 3);
+        TestHelper.placeSingleChest(helper, nearChest, Direction.NORTH);
+        TestHelper.placeSingleChest(helper, farChest, Direction.NORTH);
+        TestHelper.placeCategorySign(helper, nearChest, Direction.NORTH, "swords");
+        TestHelper.placeCategorySign(helper, farChest, Direction.NORTH, "swords");
+
+        SortContext context = indexedContext(helper, nearChest);
+        SignBlockEntity first = context.findSign("[swords]");
+        if (first == null || !first.getBlockPos().equals(helper.absolutePos(nearChest.relative(Direction.NORTH)))) {
+            helper.fail(Component.literal("Expected the closer [swords] sign to be found first"));
+            return;
+        }
+
+        // Removed without an event after this context refreshed the index
+        helper.setBlock(nearChest.relative(Direction.NORTH), Blocks.AIR.defaultBlockState());
+
+        SignBlockEntity second = context.findSign("[swords]");
+        if (second == null || !second.getBlockPos().equals(helper.absolutePos(farChest.relative(Direction.NORTH)))) {
+            helper.fail(Component.literal("Expected the farther [swords] sign once the closer one was removed, got "
+                    + (second == null ? "none" : second.getBlockPos())));
+            return;
+        }
+
+        helper.succeed();
+    }
+}
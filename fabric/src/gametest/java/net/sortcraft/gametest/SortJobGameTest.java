@@ -0,0 +1,377 @@
+package net.sortcraft.gametest;
+
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.sortcraft.container.SortContext;
+import net.sortcraft.sorting.InputSlotTracker;
+import net.sortcraft.sorting.SortJob;
+import net.sortcraft.sorting.SortJobScheduler;
+import net.sortcraft.sorting.SortTask;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * GameTests for sort jobs spread over several steps, and for the sort scheduler.
+ * A budget of 0 makes every step process exactly one group of identical stacks.
+ */
+public class SortJobGameTest {
+
+    private static SortJob newJob(GameTestHelper helper, BlockPos inputPos) {
+        SortContext context = new SortContext(helper.getLevel(), helper.absolutePos(inputPos), 5);
+        return new SortJob(context, helper.getLevel(), () -> TestHelper.getChestContainer(helper, inputPos), false, null);
+    }
+
+    private static SortJob newJob(GameTestHelper helper, BlockPos inputPos, BitSet cleanSlots) {
+        SortContext context = new SortContext(helper.getLevel(), helper.absolutePos(inputPos), 5);
+        return new SortJob(context, helper.getLevel(), () -> TestHelper.getChestContainer(helper, inputPos), false, null,
+                cleanSlots);
+    }
+
+    /**
+     * Test that a job finishes over several steps with the same result as a single sort.
+     */
+    @GameTest
+    public void jobResumesAcrossSteps(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords",
+            new ItemStack(Items.DIAMOND_SWORD),
+            new ItemStack(Items.IRON_SWORD),
+            new ItemStack(Items.STONE_SWORD)
+        );
+
+        SortJob job = newJob(helper, setup.inputPos());
+        if (job.getTotalStacks() != 3) {
+            helper.fail(Component.literal("Expected 3 stacks in job but found " + job.getTotalStacks()));
+            return;
+        }
+
+        for (int step = 1; step <= 3; step++) {
+            boolean done = job.step(0);
+            if (done != (step == 3)) {
+                helper.fail(Component.literal("Job done=" + done + " after step " + step));
+                return;
+            }
+        }
+
+        if (job.getResults().sorted != 3) {
+            helper.fail(Component.literal("Expected 3 items sorted but got " + job.getResults().sorted));
+            return;
+        }
+        if (!TestHelper.isChestEmpty(helper, setup.inputPos())) {
+            helper.fail(Component.literal("Input chest should be empty after job"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that stacks taken out of the input chest between steps aren't sorted.
+     */
+    @GameTest
+    public void stacksRemovedBetweenStepsAreSkipped(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.basicInputAndCategory(helper, "swords");
+        TestHelper.insertItemAt(helper, setup.inputPos(), 0, new ItemStack(Items.DIAMOND_SWORD));
+        TestHelper.insertItemAt(helper, setup.inputPos(), 1, new ItemStack(Items.IRON_SWORD));
+
+        SortJob job = newJob(helper, setup.inputPos());
+        job.step(0);
+
+        // A player takes the iron sword before the next step
+        Container input = TestHelper.getChestContainer(helper, setup.inputPos());
+        input.setItem(1, ItemStack.EMPTY);
+
+        if (!job.step(0)) {
+            helper.fail(Component.literal("Job should be done after its second step"));
+            return;
+        }
+        if (job.getResults().sorted != 1) {
+            helper.fail(Component.literal("Expected 1 item sorted but got " + job.getResults().sorted));
+            return;
+        }
+        int ironSwords = TestHelper.countItemsInChest(helper, setup.categoryPos(), Items.IRON_SWORD);
+        if (ironSwords != 0) {
+            helper.fail(Component.literal("Removed iron sword should not be sorted, found " + ironSwords));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that room made in a full destination chest between steps is used by later steps.
+     */
+    @GameTest
+    public void destinationEmptiedBetweenStepsIsUsed(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.basicInputAndCategory(helper, "swords");
+        Container destination = TestHelper.getChestContainer(helper, setup.categoryPos());
+        for (int slot = 0; slot < destination.getContainerSize(); slot++) {
+            destination.setItem(slot, new ItemStack(Items.STONE_SWORD));
+        }
+        TestHelper.insertItemAt(helper, setup.inputPos(), 0, new ItemStack(Items.DIAMOND_SWORD));
+        TestHelper.insertItemAt(helper, setup.inputPos(), 1, new ItemStack(Items.IRON_SWORD));
+
+        SortJob job = newJob(helper, setup.inputPos());
+        job.step(0);
+        if (job.getResults().sorted != 0) {
+            helper.fail(Component.literal("Nothing should fit into the full destination"));
+            return;
+        }
+
+        // A player empties the destination chest before the next step
+        destination.clearContent();
+
+        job.step(0);
+        if (job.getResults().sorted != 1) {
+            helper.fail(Component.literal("Expected 1 item sorted after the destination was emptied but got "
+                + job.getResults().sorted));
+            return;
+        }
+        if (TestHelper.countItemsInChest(helper, setup.categoryPos(), Items.IRON_SWORD) != 1) {
+            helper.fail(Component.literal("Iron sword should be in the emptied destination"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a job stops when its input chest is broken between steps.
+     */
+    @GameTest
+    public void jobAbortsWhenInputChestIsRemoved(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords",
+            new ItemStack(Items.DIAMOND_SWORD),
+            new ItemStack(Items.IRON_SWORD)
+        );
+
+        SortJob job = newJob(helper, setup.inputPos());
+        job.step(0);
+        helper.setBlock(setup.inputPos(), Blocks.AIR.defaultBlockState());
+
+        if (!job.step(0) || !job.isAborted()) {
+            helper.fail(Component.literal("Job should be aborted once its input chest is gone"));
+            return;
+        }
+        if (job.getResults().sorted != 1) {
+            helper.fail(Component.literal("Expected 1 item sorted before abort but got " + job.getResults().sorted));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that the listeners of a task that throws are told it failed, and that its input is released.
+     */
+    @GameTest
+    public void failedTaskNotifiesListeners(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords", new ItemStack(Items.DIAMOND_SWORD));
+        SortJobScheduler.InputKey key = SortJobScheduler.InputKey.of(
+            helper.getLevel(), helper.absolutePos(setup.inputPos()), false);
+        SortContext context = new SortContext(helper.getLevel(), helper.absolutePos(setup.inputPos()), 5);
+        RuntimeException[] failure = {null};
+        boolean[] completed = {false};
+        SortJobScheduler.Listener listener = new SortJobScheduler.Listener() {
+            @Override
+            public void onComplete(SortTask task) {
+                completed[0] = true;
+            }
+
+            @Override
+            public void onFailed(SortTask task, RuntimeException error) {
+                failure[0] = error;
+            }
+        };
+
+        try {
+            // Not planned, so the first step runs within submit and reads the input right away
+            SortJobScheduler.submit(key, "player", () -> new SortTask(context, helper.getLevel(), () -> {
+                throw new IllegalStateException("broken input");
+            }, false, null, false, null), listener);
+            if (failure[0] == null || completed[0]) {
+                helper.fail(Component.literal("Listener should be told the task failed, not that it completed"));
+                return;
+            }
+            if (SortJobScheduler.isPending(key, "player")) {
+                helper.fail(Component.literal("Failed task should be released"));
+                return;
+            }
+        } finally {
+            SortJobScheduler.cancel(key);
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that repeat requests for an input chest that is still being sorted are merged.
+     * The planned task stays pending until its plan comes back, which can't happen within this call.
+     */
+    @GameTest
+    public void repeatRequestsAreMerged(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords", new ItemStack(Items.DIAMOND_SWORD));
+        SortJobScheduler.InputKey key = SortJobScheduler.InputKey.of(
+            helper.getLevel(), helper.absolutePos(setup.inputPos()), false);
+        SortContext context = new SortContext(helper.getLevel(), helper.absolutePos(setup.inputPos()), 5);
+        int[] tasksCreated = {0};
+        Supplier<SortTask> task = () -> {
+            tasksCreated[0]++;
+            return new SortTask(context, helper.getLevel(),
+                () -> TestHelper.getChestContainer(helper, setup.inputPos()), false, null, true, null);
+        };
+        SortJobScheduler.Listener listener = result -> {};
+
+        try {
+            boolean first = SortJobScheduler.submit(key, "player", task, listener);
+            boolean second = SortJobScheduler.submit(key, "player", task, listener);
+            if (!first || second || tasksCreated[0] != 1) {
+                helper.fail(Component.literal("Expected one task for repeat requests but created " + tasksCreated[0]));
+                return;
+            }
+            if (!SortJobScheduler.isPending(key, "player") || SortJobScheduler.isPending(key, "other")) {
+                helper.fail(Component.literal("Only the requesting player should have a pending sort"));
+                return;
+            }
+        } finally {
+            SortJobScheduler.cancel(key);
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that with one sort per network, a sort whose search area overlaps a running one waits,
+     * while one whose search area is elsewhere starts right away.
+     * Planned tasks stay running until their plan comes back, which can't happen within this call.
+     */
+    @GameTest
+    public void onlySortsWithOverlappingSearchAreasWait(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords", new ItemStack(Items.DIAMOND_SWORD));
+        BlockPos absInputPos = helper.absolutePos(setup.inputPos());
+        Supplier<Container> input = () -> TestHelper.getChestContainer(helper, setup.inputPos());
+        SortJobScheduler.Listener listener = result -> {};
+        // Search areas 8 blocks apart with a radius of 5 overlap
+        BlockPos nearPos = absInputPos.offset(8, 0, 0);
+        BlockPos farPos = absInputPos.offset(11, 0, 0);
+        SortJobScheduler.InputKey firstKey = SortJobScheduler.InputKey.of(helper.getLevel(), absInputPos, false);
+        SortJobScheduler.InputKey nearKey = SortJobScheduler.InputKey.of(helper.getLevel(), nearPos, false);
+        SortJobScheduler.InputKey farKey = SortJobScheduler.InputKey.of(helper.getLevel(), farPos, false);
+
+        try {
+            SortJobScheduler.submit(firstKey, "first",
+                () -> new SortTask(new SortContext(helper.getLevel(), absInputPos, 5),
+                    helper.getLevel(), input, false, null, true, null), listener);
+
+            SortTask near = new SortTask(new SortContext(helper.getLevel(), nearPos, 5),
+                helper.getLevel(), input, false, null, true, null);
+            SortJobScheduler.submit(nearKey, "second", () -> near, listener);
+
+            SortTask far = new SortTask(new SortContext(helper.getLevel(), farPos, 5),
+                helper.getLevel(), input, false, null, true, null);
+            SortJobScheduler.submit(farKey, "third", () -> far, listener);
+
+            if (near.isPlanning()) {
+                helper.fail(Component.literal("Sort with an overlapping search area should wait its turn"));
+                return;
+            }
+            if (!far.isPlanning()) {
+                helper.fail(Component.literal("Sort with a separate search area should start right away"));
+                return;
+            }
+        } finally {
+            SortJobScheduler.cancel(firstKey);
+            SortJobScheduler.cancel(nearKey);
+            SortJobScheduler.cancel(farKey);
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a repeat sort skips an unsortable stack nobody touched, but still reports it,
+     * and looks at it again once its count changed.
+     */
+    @GameTest
+    public void unchangedUnsortableSlotsAreSkipped(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords", new ItemStack(Items.DEBUG_STICK));
+        InputSlotTracker tracker = InputSlotTracker.forInput(helper.getLevel(), helper.absolutePos(setup.inputPos()));
+        Container input = TestHelper.getChestContainer(helper, setup.inputPos());
+
+        try {
+            SortJob first = newJob(helper, setup.inputPos(), tracker.cleanSlots(input));
+            first.step(Long.MAX_VALUE);
+            tracker.record(input, first.getSettledSlots());
+
+            SortJob second = newJob(helper, setup.inputPos(), tracker.cleanSlots(input));
+            if (second.getTotalStacks() != 0) {
+                helper.fail(Component.literal("Unchanged debug stick should be skipped but job has "
+                    + second.getTotalStacks() + " stacks"));
+                return;
+            }
+            second.step(Long.MAX_VALUE);
+            if (!second.getResults().unknownItems.contains("minecraft:debug_stick")) {
+                helper.fail(Component.literal("Skipped debug stick should still be reported as unknown"));
+                return;
+            }
+
+            // A hopper adds to the stack
+            input.getItem(0).grow(1);
+            if (!tracker.cleanSlots(input).isEmpty()) {
+                helper.fail(Component.literal("Slot whose count changed should be dirty"));
+                return;
+            }
+        } finally {
+            // Only this chest's tracker; other tests' sorts may be using theirs
+            InputSlotTracker.markChanged(helper.getLevel(), helper.absolutePos(setup.inputPos()));
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that breaking either half of a double chest forgets its input tracker.
+     */
+    @GameTest
+    public void breakingEitherHalfForgetsTracker(GameTestHelper helper) {
+        BlockPos primaryPos = new BlockPos(1, 1, 1);
+        TestHelper.placeDoubleChest(helper, primaryPos, Direction.NORTH);
+        BlockPos absPrimaryPos = helper.absolutePos(primaryPos);
+        BlockPos absSecondaryPos = helper.absolutePos(primaryPos.relative(Direction.NORTH.getClockWise()));
+
+        for (BlockPos broken : List.of(absPrimaryPos, absSecondaryPos)) {
+            InputSlotTracker before = InputSlotTracker.forInput(helper.getLevel(), absPrimaryPos);
+            InputSlotTracker.markChanged(helper.getLevel(), broken);
+            if (InputSlotTracker.forInput(helper.getLevel(), absSecondaryPos) == before) {
+                helper.fail(Component.literal("Breaking the chest half at " + broken + " should forget its tracker"));
+                return;
+            }
+        }
+
+        helper.succeed();
+    }
+}
@@ -0,0 +1,132 @@
+package net.sortcraft.gametest;
+
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.sortcraft.container.SortContext;
+import net.sortcraft.sorting.SortPlan;
+
+import java.util.BitSet;
+
+/**
+ * GameTests for sort plans.
+ * Plans are prepared with inline executors so every stage runs on the test thread.
+ */
+public class SortPlanGameTest {
+
+    private static SortPlan plan(GameTestHelper helper, BlockPos inputPos) {
+        SortContext context = new SortContext(helper.getLevel(), helper.absolutePos(inputPos), 5);
+        return SortPlan.prepare(context, helper.getLevel(), () -> TestHelper.getChestContainer(helper, inputPos),
+                new BitSet(), Runnable::run, Runnable::run).join();
+    }
+
+    /**
+     * Test that an applied plan moves the items like a regular sort.
+     */
+    @GameTest
+    public void planMovesItems(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords",
+            new ItemStack(Items.DIAMOND_SWORD),
+            new ItemStack(Items.IRON_SWORD),
+            new ItemStack(Items.DEBUG_STICK)
+        );
+
+        SortPlan plan = plan(helper, setup.inputPos());
+        if (!plan.apply()) {
+            helper.fail(Component.literal("Plan should apply when nothing changed"));
+            return;
+        }
+
+        if (plan.getResults().sorted != 2) {
+            helper.fail(Component.literal("Expected 2 items sorted but got " + plan.getResults().sorted));
+            return;
+        }
+        int swords = TestHelper.countItemsInChest(helper, setup.categoryPos(), Items.DIAMOND_SWORD)
+                   + TestHelper.countItemsInChest(helper, setup.categoryPos(), Items.IRON_SWORD);
+        if (swords != 2) {
+            helper.fail(Component.literal("Expected 2 swords in category chest but found " + swords));
+            return;
+        }
+        if (TestHelper.countItemsInChest(helper, setup.inputPos(), Items.DEBUG_STICK) != 1) {
+            helper.fail(Component.literal("Unsortable debug stick should stay in input"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a plan sorts the contents of a shulker box in the input.
+     */
+    @GameTest
+    public void planSortsShulkerContents(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.inputWithItems(helper, "swords",
+            TestHelper.createShulkerBox(
+                new ItemStack(Items.DIAMOND_SWORD),
+                new ItemStack(Items.DEBUG_STICK)
+            )
+        );
+
+        SortPlan plan = plan(helper, setup.inputPos());
+        if (!plan.apply()) {
+            helper.fail(Component.literal("Plan should apply when nothing changed"));
+            return;
+        }
+
+        int swords = TestHelper.countItemsInChest(helper, setup.categoryPos(), Items.DIAMOND_SWORD);
+        if (swords != 1) {
+            helper.fail(Component.literal("Expected 1 sword in category chest but found " + swords));
+            return;
+        }
+        ItemStack shulker = TestHelper.getItemAt(helper, setup.inputPos(), 0);
+        boolean hasDebugStick = TestHelper.getShulkerContents(shulker).stream().anyMatch(s -> s.is(Items.DEBUG_STICK));
+        boolean hasSword = TestHelper.getShulkerContents(shulker).stream().anyMatch(s -> s.is(Items.DIAMOND_SWORD));
+        if (!hasDebugStick || hasSword) {
+            helper.fail(Component.literal("Shulker should keep only the debug stick"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a plan is discarded without moving anything when the input changes before it's applied.
+     */
+    @GameTest
+    public void planDiscardedWhenInputChanges(GameTestHelper helper) {
+        TestHelper.setupCategories(TestCategories.SWORDS);
+
+        SortingTestSetup setup = TestScenarios.basicInputAndCategory(helper, "swords");
+        TestHelper.insertItemAt(helper, setup.inputPos(), 0, new ItemStack(Items.DIAMOND_SWORD));
+        TestHelper.insertItemAt(helper, setup.inputPos(), 1, new ItemStack(Items.IRON_SWORD));
+
+        SortPlan plan = plan(helper, setup.inputPos());
+
+        // A player takes the iron sword before the plan is applied
+        Container input = TestHelper.getChestContainer(helper, setup.inputPos());
+        input.setItem(1, ItemStack.EMPTY);
+
+        if (plan.apply()) {
+            helper.fail(Component.literal("Plan should not apply after the input changed"));
+            return;
+        }
+        if (!TestHelper.isChestEmpty(helper, setup.categoryPos())) {
+            helper.fail(Component.literal("Discarded plan should not move anything"));
+            return;
+        }
+        if (TestHelper.countItemsInChest(helper, setup.inputPos(), Items.DIAMOND_SWORD) != 1) {
+            helper.fail(Component.literal("Diamond sword should still be in input"));
+            return;
+        }
+
+        helper.succeed();
+    }
+}
@@ -279,5 +279,86 @@ public class VerticalStackGameTest {
 
         helper.succeed();
     }
-}
 
+    // ========== Stack Caching ==========
+
+    /**
+     * Test that an unchanged stack is served from the cache.
+     */
+    @GameTest
+    public void unchangedStackIsCached(GameTestHelper helper) {
+        List<BlockPos> positions = TestHelper.setupCategoryStack(
+            helper, new BlockPos(1, 1, 1), 3, Direction.NORTH, Direction.NORTH, "test");
+
+        ServerLevel level = helper.getLevel();
+        BlockPos absTopChestPos = helper.absolutePos(positions.get(2));
+
+        List<ChestRef> first = ContainerHelper.collectChestStack(level, absTopChestPos);
+        List<ChestRef> second = ContainerHelper.collectChestStack(level, absTopChestPos);
+        if (first != second) {
+            helper.fail(Component.literal("Expected unchanged stack to be returned from the cache"));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a chest added below a cached stack is picked up without any block event.
+     */
+    @GameTest
+    public void cachedStackSeesChestAddedBelow(GameTestHelper helper) {
+        List<BlockPos> positions = TestHelper.setupCategoryStack(
+            helper, new BlockPos(1, 2, 1), 2, Direction.NORTH, Direction.NORTH, "test");
+
+        ServerLevel level = helper.getLevel();
+        BlockPos absTopChestPos = helper.absolutePos(positions.get(1));
+
+        List<ChestRef> before = ContainerHelper.collectChestStack(level, absTopChestPos);
+        if (before.size() != 2) {
+            helper.fail(Component.literal("Expected stack of 2 but got " + before.size()));
+            return;
+        }
+
+        TestHelper.placeSingleChest(helper, new BlockPos(1, 1, 1), Direction.NORTH);
+
+        List<ChestRef> after = ContainerHelper.collectChestStack(level, absTopChestPos);
+        if (after.size() != 3) {
+            helper.fail(Component.literal("Expected stack of 3 after adding a chest below but got " + after.size()));
+            return;
+        }
+
+        helper.succeed();
+    }
+
+    /**
+     * Test that a category sign placed on a cached stack without a block event still splits it.
+     */
+    @GameTest
+    public void signPlacedWithoutEventSplitsCachedStack(GameTestHelper helper) {
+        BlockPos bottomPos = new BlockPos(1, 1, 1);
+        List<BlockPos> positions = TestHelper.setupCategoryStack(
+            helper, bottomPos, 2, Direction.NORTH, Direction.NORTH, "test"
+        );
+
+        ServerLevel level = helper.getLevel();
+        BlockPos absTopChestPos = helper.absolutePos(positions.get(1));
+
+        List<ChestRef> stack = ContainerHelper.collectChestStack(level, absTopChestPos);
+        if (stack.size() != 2) {
+            helper.fail(Component.literal("Expected stack of 2 but got " + stack.size()));
+            return;
+        }
+
+        // Like /setblock: the sign appears without a place event
+        TestHelper.placeCategorySign(helper, bottomPos, Direction.NORTH, "other");
+
+        stack = ContainerHelper.collectChestStack(level, absTopChestPos);
+        if (stack.size() != 1) {
+            helper.fail(Component.literal("Expected new sign to split the stack, but got " + stack.size() + " chests"));
+            return;
+        }
+
+        helper.succeed();
+    }
+}
@@ -0,0 +1,136 @@
+package net.sortcraft.test;
+
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.sortcraft.FilterInput;
+import net.sortcraft.category.CategoryCache;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.category.CategoryNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bootstrap tests for the compiled category cache.
+ * Tests that cached categories read back unchanged and that stale caches are ignored.
+ */
+public class CategoryCacheTest extends SortcraftBootstrapTestBase {
+    private static final String FINGERPRINT = "test-registries";
+
+    @TempDir
+    Path tempDir;
+
+    private Map<String, CategoryNode> writeAndRead(String key, Map<String, Object> filterSources, String readKey)
+            throws IOException {
+        Path cacheFile = tempDir.resolve(CategoryCache.FILE_NAME);
+        CategoryCache.write(cacheFile, key, CategoryLoader.getCategories().values(), filterSources);
+        return CategoryCache.read(cacheFile, readKey, null);
+    }
+
+    // ========== Round Trip ==========
+
+    @Test
+    void cachedCategoriesReadBackUnchanged() throws IOException {
+        loadCategories(categoryYamlWithPriority("swords", 5, "minecraft:diamond_sword", "minecraft:iron_sword")
+                + categoryYamlWithIncludes("weapons", 20, "swords"));
+
+        Map<String, CategoryNode> cached = writeAndRead("key", Map.of(), "key");
+
+        assertNotNull(cached, "Cache with matching key should be read");
+        assertEquals(CategoryLoader.getCategories().keySet(), cached.keySet());
+        for (CategoryNode original : CategoryLoader.getCategories().values()) {
+            CategoryNode copy = cached.get(original.name);
+            assertEquals(original.priority, copy.priority, "Priority of " + original.name);
+            assertEquals(original.includes, copy.includes, "Includes of " + original.name);
+            assertEquals(original.itemIds, copy.itemIds, "Items of " + original.name);
+            assertEquals(original.flattenedItemIds, copy.flattenedItemIds, "Flattened items of " + original.name);
+        }
+    }
+
+    @Test
+    void cachedFiltersAreRecreated() throws IOException {
+        loadCategories("""
+            named_swords:
+              items:
+              - minecraft:diamond_sword
+              filters:
+              - custom_name: "Excalibur"
+            """);
+        List<?> filterSource = List.of(Map.of("custom_name", "Excalibur"));
+
+        CategoryNode copy = writeAndRead("key", Map.of("named_swords", filterSource), "key").get("named_swords");
+
+        assertEquals(1, copy.filters.size());
+        assertTrue(copy.compiledFilter.matches(FilterInput.of(namedStack(Items.DIAMOND_SWORD, "Excalibur"))));
+        assertFalse(copy.compiledFilter.matches(FilterInput.of(new ItemStack(Items.DIAMOND_SWORD))));
+    }
+
+    // ========== Key Mismatch ==========
+
+    @Test
+    void cacheWithOtherKeyIsIgnored() throws IOException {
+        loadCategories(categoryYaml("gems", "minecraft:diamond"));
+
+        assertNull(writeAndRead("old-key", Map.of(), "new-key"), "Cache with a different key must not be used");
+    }
+
+    @Test
+    void missingCacheIsIgnored() throws IOException {
+        assertNull(CategoryCache.read(tempDir.resolve(CategoryCache.FILE_NAME), "key", null));
+    }
+
+    @Test
+    void truncatedCacheIsRejected() throws IOException {
+        loadCategories(categoryYaml("gems", "minecraft:diamond", "minecraft:emerald"));
+        Path cacheFile = tempDir.resolve(CategoryCache.FILE_NAME);
+        CategoryCache.write(cacheFile, "key", CategoryLoader.getCategories().values(), Map.of());
+        byte[] content = Files.readAllBytes(cacheFile);
+        Files.write(cacheFile, Arrays.copyOf(content, content.length - 4));
+
+        assertThrows(IOException.class, () -> CategoryCache.read(cacheFile, "key", null));
+    }
+
+    @Test
+    void cacheFileCanBeReplacedAfterReading() throws IOException {
+        loadCategories(categoryYaml("gems", "minecraft:diamond"));
+        Path cacheFile = tempDir.resolve(CategoryCache.FILE_NAME);
+        CategoryCache.write(cacheFile, "key", CategoryLoader.getCategories().values(), Map.of());
+        assertNotNull(CategoryCache.read(cacheFile, "key", null));
+
+        // Writing replaces the file with a move, which fails on Windows while the old file is still open
+        CategoryCache.write(cacheFile, "other", CategoryLoader.getCategories().values(), Map.of());
+        assertNotNull(CategoryCache.read(cacheFile, "other", null));
+    }
+
+    @Test
+    void keyCoversFilesThatFailToParse() throws IOException {
+        Path categoriesDir = Files.createDirectories(tempDir.resolve("categories"));
+        Files.writeString(categoriesDir.resolve("a.yaml"), categoryYaml("gems", "minecraft:diamond"), StandardCharsets.UTF_8);
+        Files.writeString(categoriesDir.resolve("b.yaml"), "broken: [", StandardCharsets.UTF_8);
+        String key = CategoryCache.cacheKey(categoriesDir, FINGERPRINT);
+
+        assertEquals(key, CategoryCache.cacheKey(categoriesDir, FINGERPRINT), "Key must be stable");
+
+        // Fixing the broken file must invalidate a cache written while it was broken
+        Files.writeString(categoriesDir.resolve("b.yaml"), categoryYaml("ores", "minecraft:iron_ore"), StandardCharsets.UTF_8);
+        assertNotEquals(key, CategoryCache.cacheKey(categoriesDir, FINGERPRINT));
+    }
+
+    @Test
+    void keyChangesWithRegistries() throws IOException {
+        Path categoriesDir = Files.createDirectories(tempDir.resolve("categories"));
+        Files.writeString(categoriesDir.resolve("a.yaml"), categoryYaml("gems", "minecraft:diamond"), StandardCharsets.UTF_8);
+
+        assertNotEquals(CategoryCache.cacheKey(categoriesDir, FINGERPRINT),
+                CategoryCache.cacheKey(categoriesDir, "other-registries"));
+    }
+}
@@ -0,0 +1,85 @@
+package net.sortcraft.test;
+
+import net.minecraft.world.item.Items;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.category.CategorySnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bootstrap tests for loading a directory of category files, which are parsed concurrently
+ * and merged in alphabetical order.
+ */
+public class CategoryDirectoryTest extends SortcraftBootstrapTestBase {
+    private static final String FINGERPRINT = "test-registries";
+
+    @TempDir
+    Path categoriesDir;
+
+    private void writeFile(String fileName, String yaml) throws IOException {
+        Files.writeString(categoriesDir.resolve(fileName), yaml, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes enough filler files that the parse pool runs several files at once.
+     */
+    private void writeFillerFiles(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            writeFile(String.format("m%02d.yaml", i), categoryYaml("filler_" + i, "minecraft:stone"));
+        }
+    }
+
+    @Test
+    void duplicateCategoryResolvesToAlphabeticallyLaterFile() throws IOException {
+        // The earlier file is much larger, so it tends to finish parsing after the later one
+        StringBuilder large = new StringBuilder(categoryYaml("shared", "minecraft:diamond"));
+        for (int i = 0; i < 2000; i++) {
+            large.append(categoryYaml("padding_" + i, "minecraft:dirt"));
+        }
+        writeFile("a.yaml", large.toString());
+        writeFillerFiles(8);
+        writeFile("z.yaml", categoryYaml("shared", "minecraft:emerald"));
+
+        // Repeated, since a wrong merge order would only show up for some thread interleavings
+        for (int attempt = 0; attempt < 5; attempt++) {
+            CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+            assertMatchesCategory(Items.EMERALD, "shared");
+            assertDoesNotMatchCategory(Items.DIAMOND, "shared");
+        }
+    }
+
+    @Test
+    void unparsableFileDoesNotAbortOtherFiles() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        writeFile("b.yaml", "broken: [unclosed\n  - minecraft:dirt\n");
+        writeFillerFiles(4);
+        writeFile("z.yaml", categoryYaml("ores", "minecraft:coal"));
+
+        CategorySnapshot snapshot = CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        assertFalse(snapshot.getCategories().containsKey("broken"));
+        assertTrue(snapshot.getCategories().containsKey("gems"), "File before the broken one should load");
+        assertTrue(snapshot.getCategories().containsKey("ores"), "File after the broken one should load");
+        assertEquals(6, snapshot.getCategories().size());
+        assertMatchesCategory(Items.COAL, "ores");
+    }
+
+    @Test
+    void fileThatIsNotAMapIsSkipped() throws IOException {
+        writeFile("a.yaml", "- just\n- a list\n");
+        writeFile("b.yaml", categoryYaml("gems", "minecraft:diamond"));
+
+        CategorySnapshot snapshot = CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        assertEquals(1, snapshot.getCategories().size());
+        assertMatchesCategory(Items.DIAMOND, "gems");
+    }
+}
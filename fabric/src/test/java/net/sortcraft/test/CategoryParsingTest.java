@@ -1,8 +1,10 @@
 package net.sortcraft.test;
 
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.world.item.Items;
 import net.sortcraft.category.CategoryLoader;
 import net.sortcraft.category.CategoryNode;
+import net.sortcraft.category.CategorySnapshot;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
@@ -50,6 +52,30 @@ public class CategoryParsingTest extends SortcraftBootstrapTestBase {
         assertMatchesCategoriesInOrder(Items.DIAMOND_SWORD, "low", "high");
     }
 
+    @Test
+    void equalPriorityOrderedByName() {
+        String yaml = categoryYamlWithPriority("zeta", 10, "minecraft:diamond_sword") +
+                      categoryYamlWithPriority("alpha", 10, "minecraft:diamond_sword") +
+                      categoryYamlWithPriority("mid", 10, "minecraft:diamond_sword");
+        loadCategories(yaml);
+
+        // Ties on priority are broken by name so the order doesn't depend on hashing
+        assertMatchesCategoriesInOrder(Items.DIAMOND_SWORD, "alpha", "mid", "zeta");
+    }
+
+    @Test
+    void itemLookupMatchesIdLookup() {
+        String yaml = categoryYamlWithPriority("swords", 5, "minecraft:diamond_sword") +
+                      categoryYamlWithPriority("weapons", 20, "minecraft:diamond_sword", "minecraft:bow");
+        loadCategories(yaml);
+
+        assertEquals(
+            CategoryLoader.getMatchingCategoriesNoFilter(BuiltInRegistries.ITEM.getKey(Items.DIAMOND_SWORD)),
+            CategoryLoader.getMatchingCategoriesNoFilter(Items.DIAMOND_SWORD));
+        assertEquals(1, CategoryLoader.getMatchingCategoriesNoFilter(Items.BOW).size());
+        assertTrue(CategoryLoader.getMatchingCategoriesNoFilter(Items.STICK).isEmpty());
+    }
+
     @Test
     void defaultPriorityIsTen() {
         String yaml = categoryYaml("default", "minecraft:diamond_sword") +
@@ -265,5 +291,24 @@ public class CategoryParsingTest extends SortcraftBootstrapTestBase {
 
         assertMatchesCategory(Items.DIAMOND_SWORD, "my-category_name");
     }
-}
 
+    // ========== Snapshot Publishing ==========
+
+    @Test
+    void stagedCategoriesNotVisibleUntilFlattened() {
+        loadCategories(categoryYaml("swords", "minecraft:diamond_sword"));
+        CategorySnapshot before = CategoryLoader.getSnapshot();
+
+        CategoryLoader.loadCategoriesFromYaml(categoryYaml("pickaxes", "minecraft:diamond_pickaxe"));
+        assertSame(before, CategoryLoader.getSnapshot(), "Loading should only stage categories");
+        assertFalse(CategoryLoader.getCategories().containsKey("pickaxes"));
+
+        CategoryLoader.flattenCategories();
+        CategorySnapshot after = CategoryLoader.getSnapshot();
+        assertTrue(after.getVersion() > before.getVersion(), "Publishing should bump the version");
+        assertMatchesCategory(Items.DIAMOND_PICKAXE, "pickaxes");
+        // The old snapshot is left as it was
+        assertFalse(before.getCategories().containsKey("pickaxes"));
+        assertTrue(before.getMatchingCategoriesNoFilter(Items.DIAMOND_PICKAXE).isEmpty());
+    }
+}
@@ -0,0 +1,283 @@
+package net.sortcraft.test;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.sortcraft.FilterInput;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.category.CategoryNode;
+import net.sortcraft.category.CategorySnapshot;
+import net.sortcraft.compat.RegistryHelper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bootstrap tests for incremental category reloads.
+ * Each test changes category files after a full load, reloads only the changed files,
+ * and checks the result against a full load of the same files.
+ */
+public class CategoryReloadTest extends SortcraftBootstrapTestBase {
+    private static final String FINGERPRINT = "test-registries";
+
+    @TempDir
+    Path categoriesDir;
+
+    private void writeFile(String fileName, String yaml) throws IOException {
+        Files.writeString(categoriesDir.resolve(fileName), yaml, StandardCharsets.UTF_8);
+    }
+
+    private CategoryLoader.ReloadStats reloadChanged() throws IOException {
+        CategoryLoader.ReloadStats stats = CategoryLoader.reloadChangedCategories(categoriesDir, FINGERPRINT);
+        assertFalse(stats.fullReload(), "Reload should be incremental");
+        return stats;
+    }
+
+    private static List<String> names(Collection<CategoryNode> categories) {
+        return categories.stream().map(category -> category.name).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Asserts that the published snapshot of an incremental reload equals a full load of the same files.
+     */
+    private void assertSameAsFullReload() {
+        CategorySnapshot incremental = CategoryLoader.getSnapshot();
+        CategorySnapshot full = CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        assertEquals(full.getCategories().keySet(), incremental.getCategories().keySet(), "Category names");
+        for (CategoryNode expected : full.getCategories().values()) {
+            CategoryNode actual = incremental.getCategories().get(expected.name);
+            assertEquals(expected.priority, actual.priority, "Priority of " + expected.name);
+            assertEquals(expected.includes, actual.includes, "Includes of " + expected.name);
+            assertEquals(expected.itemIds, actual.itemIds, "Items of " + expected.name);
+            assertEquals(expected.flattenedItemIds, actual.flattenedItemIds, "Flattened items of " + expected.name);
+            assertEquals(expected.filters.size(), actual.filters.size(), "Filters of " + expected.name);
+        }
+
+        Set<ResourceLocation> itemIds = new HashSet<>(full.getItemCategoryMap().keySet());
+        itemIds.addAll(incremental.getItemCategoryMap().keySet());
+        for (ResourceLocation itemId : itemIds) {
+            assertEquals(names(full.getItemCategoryMap().getOrDefault(itemId, Set.of())),
+                    names(incremental.getItemCategoryMap().getOrDefault(itemId, Set.of())), "Categories of " + itemId);
+            assertEquals(full.getMatchingCategoriesNoFilter(itemId).stream().map(c -> c.name).toList(),
+                    incremental.getMatchingCategoriesNoFilter(itemId).stream().map(c -> c.name).toList(),
+                    "Ordered categories of " + itemId);
+            Item item = RegistryHelper.getItemOrNull(itemId);
+            assertEquals(full.getMatchingCategoriesNoFilter(item).stream().map(c -> c.name).toList(),
+                    incremental.getMatchingCategoriesNoFilter(item).stream().map(c -> c.name).toList(),
+                    "Categories of " + itemId + " by raw id");
+        }
+    }
+
+    // ========== Include Closure ==========
+
+    @Test
+    void changedCategoryReflattensEveryIncludingCategory() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond")
+                + categoryYamlWithIncludes("precious", 10, "gems")
+                + categoryYamlWithIncludes("treasure", 20, "precious"));
+        writeFile("b.yaml", categoryYaml("ores", "minecraft:coal"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond", "minecraft:emerald")
+                + categoryYamlWithIncludes("precious", 10, "gems")
+                + categoryYamlWithIncludes("treasure", 20, "precious"));
+        CategoryLoader.ReloadStats stats = reloadChanged();
+
+        assertEquals(3, stats.reflattenedCategories(), "gems, precious and treasure should be re-flattened");
+        assertMatchesCategory(Items.EMERALD, "treasure");
+        assertSameAsFullReload();
+    }
+
+    @Test
+    void includingCategoryInOtherFileIsReflattened() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        writeFile("b.yaml", categoryYamlWithIncludes("valuables", 5, "gems"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:emerald"));
+        reloadChanged();
+
+        assertMatchesCategory(Items.EMERALD, "valuables");
+        assertDoesNotMatchCategory(Items.DIAMOND, "valuables");
+        assertSameAsFullReload();
+    }
+
+    // ========== Removed Files ==========
+
+    @Test
+    void removedFileDropsItsCategories() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        writeFile("b.yaml", categoryYaml("ores", "minecraft:coal", "minecraft:diamond"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        Files.delete(categoriesDir.resolve("b.yaml"));
+        CategoryLoader.ReloadStats stats = reloadChanged();
+
+        assertEquals(1, stats.changedFiles());
+        assertFalse(CategoryLoader.getCategories().containsKey("ores"));
+        assertTrue(getMatchingCategories(Items.COAL).isEmpty());
+        assertEquals(List.of("gems"), getCategoryNames(Items.DIAMOND));
+        assertSameAsFullReload();
+    }
+
+    @Test
+    void removedIncludedCategoryEmptiesParent() throws IOException {
+        writeFile("a.yaml", categoryYamlWithIncludes("valuables", 5, "gems"));
+        writeFile("b.yaml", categoryYaml("gems", "minecraft:diamond"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        Files.delete(categoriesDir.resolve("b.yaml"));
+        reloadChanged();
+
+        assertDoesNotMatchCategory(Items.DIAMOND, "valuables");
+        assertSameAsFullReload();
+    }
+
+    // ========== Overridden Categories ==========
+
+    @Test
+    void laterFileOverridesCategory() throws IOException {
+        writeFile("a.yaml", categoryYamlWithPriority("gems", 5, "minecraft:diamond"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        writeFile("b.yaml", categoryYamlWithPriority("gems", 30, "minecraft:emerald"));
+        reloadChanged();
+
+        assertEquals(30, CategoryLoader.getCategories().get("gems").priority);
+        assertMatchesCategory(Items.EMERALD, "gems");
+        assertDoesNotMatchCategory(Items.DIAMOND, "gems");
+        assertSameAsFullReload();
+    }
+
+    @Test
+    void changedEarlierFileKeepsOverride() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        writeFile("b.yaml", categoryYaml("gems", "minecraft:emerald"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:coal"));
+        reloadChanged();
+
+        assertMatchesCategory(Items.EMERALD, "gems");
+        assertDoesNotMatchCategory(Items.COAL, "gems");
+        assertSameAsFullReload();
+    }
+
+    @Test
+    void removedOverrideRestoresEarlierDefinition() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        writeFile("b.yaml", categoryYaml("gems", "minecraft:emerald"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        Files.delete(categoriesDir.resolve("b.yaml"));
+        reloadChanged();
+
+        assertMatchesCategory(Items.DIAMOND, "gems");
+        assertDoesNotMatchCategory(Items.EMERALD, "gems");
+        assertSameAsFullReload();
+    }
+
+    // ========== Copied Parents ==========
+
+    @Test
+    void reflattenedParentKeepsItsOwnDefinition() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        writeFile("b.yaml", """
+            named_valuables:
+              priority: 3
+              items:
+              - minecraft:gold_ingot
+              includes:
+              - gems
+              filters:
+              - custom_name: "*"
+            """);
+        CategorySnapshot before = CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+        CategoryNode parentBefore = before.getCategories().get("named_valuables");
+        Set<ResourceLocation> flattenedBefore = new HashSet<>(parentBefore.flattenedItemIds);
+
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:emerald"));
+        reloadChanged();
+
+        CategoryNode parent = CategoryLoader.getCategories().get("named_valuables");
+        assertNotSame(parentBefore, parent, "Published nodes must be copied, not re-flattened in place");
+        assertEquals(flattenedBefore, parentBefore.flattenedItemIds, "Previous snapshot must not change");
+        assertEquals(3, parent.priority);
+        assertEquals(1, parent.filters.size());
+        assertTrue(parent.compiledFilter.matches(FilterInput.of(namedStack(Items.EMERALD, "Shiny"))));
+        assertFalse(parent.compiledFilter.matches(FilterInput.of(new ItemStack(Items.EMERALD))));
+        assertSameAsFullReload();
+    }
+
+    @Test
+    void unrelatedCategoriesAreShared() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        writeFile("b.yaml", categoryYaml("ores", "minecraft:coal"));
+        CategorySnapshot before = CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:emerald"));
+        reloadChanged();
+
+        assertSame(before.getCategories().get("ores"), CategoryLoader.getCategories().get("ores"));
+        assertSameAsFullReload();
+    }
+
+    // ========== Lookup Tables ==========
+
+    @Test
+    void lookupTablesPatchedForMovedItems() throws IOException {
+        writeFile("a.yaml", categoryYamlWithPriority("gems", 5, "minecraft:diamond", "minecraft:emerald")
+                + categoryYamlWithPriority("ingots", 20, "minecraft:iron_ingot"));
+        writeFile("b.yaml", categoryYamlWithPriority("shiny", 10, "minecraft:diamond", "minecraft:gold_ingot"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        // Diamond loses gems, emerald gains shiny, gold ingot moves ahead of it by priority
+        writeFile("a.yaml", categoryYamlWithPriority("gems", 5, "minecraft:emerald")
+                + categoryYamlWithPriority("ingots", 20, "minecraft:iron_ingot"));
+        writeFile("b.yaml", categoryYamlWithPriority("shiny", 1, "minecraft:diamond", "minecraft:emerald"));
+        reloadChanged();
+
+        assertEquals(List.of("shiny"), getCategoryNames(Items.DIAMOND));
+        assertEquals(List.of("shiny", "gems"), getCategoryNames(Items.EMERALD));
+        assertTrue(getMatchingCategories(Items.GOLD_INGOT).isEmpty());
+        assertEquals(List.of("ingots"), getCategoryNames(Items.IRON_INGOT));
+        assertSameAsFullReload();
+    }
+
+    // ========== Registry Changes ==========
+
+    @Test
+    void unchangedFilesReloadNothing() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        CategoryLoader.ReloadStats stats = reloadChanged();
+
+        assertEquals(0, stats.changedFiles());
+    }
+
+    @Test
+    void changedRegistriesForceFullReload() throws IOException {
+        writeFile("a.yaml", categoryYaml("gems", "minecraft:diamond"));
+        CategoryLoader.loadCategoryDirectory(categoriesDir, FINGERPRINT);
+
+        // Tags may now expand differently even though no file changed
+        CategoryLoader.ReloadStats stats = CategoryLoader.reloadChangedCategories(categoriesDir, "other-registries");
+
+        assertTrue(stats.fullReload(), "Changed registries must reload every file");
+        assertMatchesCategory(Items.DIAMOND, "gems");
+
+        // The new fingerprint is remembered, so the next reload is incremental again
+        assertFalse(CategoryLoader.reloadChangedCategories(categoriesDir, "other-registries").fullReload());
+    }
+}
@@ -0,0 +1,104 @@
+package net.sortcraft.test;
+
+import net.minecraft.world.item.Items;
+import net.sortcraft.category.CategoryLoader;
+import net.sortcraft.category.CategoryNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bootstrap tests for loading categories in the background at server start.
+ * A latch holds the load back, so lookups can be made while it's still running.
+ */
+public class CategoryStartupLoadTest extends SortcraftBootstrapTestBase {
+    private static final String FINGERPRINT = "test-registries";
+
+    @TempDir
+    Path categoriesDir;
+
+    private static Runnable waitFor(CountDownLatch release) {
+        return () -> {
+            try {
+                // Bounded, so a failing test can't block the reload thread for later tests
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    @Test
+    void lookupBeforeLoadFinishesWaitsForLoadedCategories() throws Exception {
+        Files.writeString(categoriesDir.resolve("gems.yaml"), categoryYaml("gems", "minecraft:diamond"),
+                StandardCharsets.UTF_8);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CategoryLoader.startLoading(categoriesDir, FINGERPRINT, waitFor(release));
+        assertEquals(CategoryLoader.LoadState.LOADING, CategoryLoader.getLoadStatus().state());
+
+        CompletableFuture<Map<String, CategoryNode>> lookup = CompletableFuture.supplyAsync(CategoryLoader::getCategories);
+        Thread.sleep(200);
+        assertFalse(lookup.isDone(), "Lookup should wait while categories are still loading");
+
+        release.countDown();
+        Map<String, CategoryNode> categories = lookup.get(10, TimeUnit.SECONDS);
+
+        assertTrue(categories.containsKey("gems"), "Lookup should see the categories once loaded");
+        assertEquals(CategoryLoader.LoadState.LOADED, CategoryLoader.getLoadStatus().state());
+        assertMatchesCategory(Items.DIAMOND, "gems");
+    }
+
+    @Test
+    void lookupAfterLoadFinishedDoesNotWait() throws Exception {
+        Files.writeString(categoriesDir.resolve("gems.yaml"), categoryYaml("gems", "minecraft:diamond"),
+                StandardCharsets.UTF_8);
+
+        CategoryLoader.startLoading(categoriesDir, FINGERPRINT, () -> {}).get(10, TimeUnit.SECONDS);
+
+        assertTrue(CategoryLoader.getCategories().containsKey("gems"));
+        assertEquals(CategoryLoader.LoadState.LOADED, CategoryLoader.getLoadStatus().state());
+    }
+
+    @Test
+    void snapshotIfReadyDoesNotWaitForLoad() throws Exception {
+        Files.writeString(categoriesDir.resolve("gems.yaml"), categoryYaml("gems", "minecraft:diamond"),
+                StandardCharsets.UTF_8);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<?> load = CategoryLoader.startLoading(categoriesDir, FINGERPRINT, waitFor(release));
+        try {
+            assertNull(CategoryLoader.getSnapshotIfReady(), "No snapshot should be handed out while loading");
+        } finally {
+            release.countDown();
+        }
+        load.get(10, TimeUnit.SECONDS);
+
+        assertTrue(CategoryLoader.getSnapshotIfReady().getCategories().containsKey("gems"));
+    }
+
+    @Test
+    void failedLoadReportsErrorAndLookupsDoNotThrow() throws Exception {
+        CompletableFuture<?> load = CategoryLoader.startLoading(categoriesDir, FINGERPRINT, () -> {
+            throw new IllegalStateException("disk on fire");
+        });
+
+        Map<String, CategoryNode> categories = CategoryLoader.getCategories();
+
+        assertTrue(load.isCompletedExceptionally());
+        assertTrue(categories.isEmpty(), "Lookups should fall back to the published (empty) categories");
+        CategoryLoader.LoadStatus status = CategoryLoader.getLoadStatus();
+        assertEquals(CategoryLoader.LoadState.FAILED, status.state());
+        assertEquals("disk on fire", status.error());
+    }
+}
@@ -0,0 +1,94 @@
+package net.sortcraft.test;
+
+import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.sortcraft.container.DestinationInventory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bootstrap tests for the per-sort slot index of destination containers.
+ */
+public class DestinationInventoryTest extends SortcraftBootstrapTestBase {
+
+    @Test
+    void partialStacksAreFilledBeforeEmptySlots() {
+        SimpleContainer container = new SimpleContainer(3);
+        container.setItem(2, new ItemStack(Items.COBBLESTONE, 60));
+        DestinationInventory destination = new DestinationInventory(container);
+
+        assertEquals(10, destination.insert(new ItemStack(Items.COBBLESTONE), 10, false));
+
+        assertEquals(64, container.getItem(2).getCount(), "Partial stack should be topped up first");
+        assertEquals(6, container.getItem(0).getCount(), "Only the rest should go into the first empty slot");
+        assertTrue(container.getItem(1).isEmpty());
+    }
+
+    @Test
+    void partialStackOfOtherItemIsNotUsed() {
+        SimpleContainer container = new SimpleContainer(2);
+        container.setItem(0, new ItemStack(Items.DIRT, 10));
+        DestinationInventory destination = new DestinationInventory(container);
+
+        assertEquals(5, destination.insert(new ItemStack(Items.COBBLESTONE), 5, false));
+
+        assertEquals(10, container.getItem(0).getCount());
+        assertEquals(Items.COBBLESTONE, container.getItem(1).getItem());
+    }
+
+    @Test
+    void previewLeavesContainerUntouched() {
+        SimpleContainer container = new SimpleContainer(1);
+        container.setItem(0, new ItemStack(Items.COBBLESTONE, 60));
+        DestinationInventory destination = new DestinationInventory(container);
+
+        assertEquals(4, destination.insert(new ItemStack(Items.COBBLESTONE), 10, true));
+        assertEquals(60, container.getItem(0).getCount());
+    }
+
+    @Test
+    void slotFilledByAnotherInsertIsCheckedAgain() {
+        SimpleContainer container = new SimpleContainer(2);
+        // Two indexes of the same chest, like one chest reached through two different stacks
+        DestinationInventory first = new DestinationInventory(container);
+        DestinationInventory second = new DestinationInventory(container);
+
+        assertEquals(64, first.insert(new ItemStack(Items.DIRT), 64, false));
+        assertEquals(64, second.insert(new ItemStack(Items.COBBLESTONE), 64, false));
+
+        assertEquals(Items.DIRT, container.getItem(0).getItem(), "Slot filled through the other index must not be overwritten");
+        assertEquals(64, container.getItem(0).getCount());
+        assertEquals(Items.COBBLESTONE, container.getItem(1).getItem());
+    }
+
+    @Test
+    void partialSlotToppedUpByAnotherInsertIsNotOverfilled() {
+        SimpleContainer container = new SimpleContainer(2);
+        container.setItem(0, new ItemStack(Items.COBBLESTONE, 60));
+        DestinationInventory first = new DestinationInventory(container);
+        DestinationInventory second = new DestinationInventory(container);
+
+        assertEquals(4, first.insert(new ItemStack(Items.COBBLESTONE), 4, false));
+        assertEquals(4, second.insert(new ItemStack(Items.COBBLESTONE), 4, false));
+
+        assertEquals(64, container.getItem(0).getCount(), "Stale partial slot must not grow past the stack size");
+        assertEquals(4, container.getItem(1).getCount());
+    }
+
+    @Test
+    void isFullOnlyWithoutEmptyOrPartialSlots() {
+        SimpleContainer container = new SimpleContainer(2);
+        container.setItem(0, new ItemStack(Items.COBBLESTONE, 64));
+        DestinationInventory destination = new DestinationInventory(container);
+        assertFalse(destination.isFull(), "Empty slot left");
+
+        assertEquals(32, destination.insert(new ItemStack(Items.DIRT), 32, false));
+        assertFalse(destination.isFull(), "Partial stack left");
+
+        assertEquals(32, destination.insert(new ItemStack(Items.DIRT), 64, false));
+        assertTrue(destination.isFull());
+        assertEquals(0, destination.insert(new ItemStack(Items.DIRT), 1, false));
+    }
+}
@@ -4,9 +4,17 @@ import net.minecraft.core.component.DataComponents;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
+import net.sortcraft.CompiledFilter;
+import net.sortcraft.FilterInput;
+import net.sortcraft.FilterRule;
+import net.sortcraft.FilterRuleFactory;
 import net.sortcraft.category.CategoryLoader;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -709,5 +717,316 @@ public class FilterTest extends SortcraftBootstrapTestBase {
         // Category should NOT be loaded due to empty filter value
         assertEquals(0, loaded, "Category with empty durability filter should not be loaded");
     }
-}
 
+    // ========== Filter Composition ==========
+
+    @Test
+    void anyOfMatchesEitherFilter() {
+        String yaml = """
+            keepers:
+              items:
+              - minecraft:diamond_sword
+              filters:
+              - any_of:
+                - custom_name: "Excalibur"
+                - durability: "<50%"
+            """;
+        loadCategories(yaml);
+
+        assertStackMatchesCategory(namedStack(Items.DIAMOND_SWORD, "Excalibur"), "keepers");
+        assertStackMatchesCategory(damagedStack(Items.DIAMOND_SWORD, 25), "keepers");
+        assertStackDoesNotMatchCategory(new ItemStack(Items.DIAMOND_SWORD), "keepers");
+    }
+
+    @Test
+    void notNegatesNestedFilters() {
+        String yaml = """
+            usable:
+              items:
+              - minecraft:diamond_sword
+              filters:
+              - not:
+                - durability: "<25%"
+            """;
+        loadCategories(yaml);
+
+        assertStackMatchesCategory(new ItemStack(Items.DIAMOND_SWORD), "usable");
+        assertStackDoesNotMatchCategory(damagedStack(Items.DIAMOND_SWORD, 10), "usable");
+    }
+
+    @Test
+    void nestedAllOfInsideAnyOf() {
+        String yaml = """
+            special:
+              items:
+              - minecraft:diamond_sword
+              filters:
+              - any_of:
+                - custom_name: "Excalibur"
+                - all_of:
+                  - durability: ">=25%"
+                  - durability: "<=75%"
+            """;
+        loadCategories(yaml);
+
+        assertStackMatchesCategory(namedStack(Items.DIAMOND_SWORD, "Excalibur"), "special");
+        assertStackMatchesCategory(damagedStack(Items.DIAMOND_SWORD, 50), "special");
+        assertStackDoesNotMatchCategory(damagedStack(Items.DIAMOND_SWORD, 90), "special");
+    }
+
+    @Test
+    void emptyCompositeFilterNotLoaded() {
+        String yaml = """
+            empty_group:
+              items:
+              - minecraft:diamond_sword
+              filters:
+              - any_of: []
+            """;
+
+        assertEquals(0, loadCategories(yaml), "Category with empty any_of should not be loaded");
+    }
+
+    // ========== Compiled Filters ==========
+
+    /**
+     * Creates a rule that runs the given check and counts how often it is evaluated.
+     */
+    private static FilterRule countingRule(int cost, int[] evaluations, Predicate<FilterInput> check) {
+        return new FilterRule() {
+            @Override
+            public boolean matches(ItemStack stack) {
+                return matches(FilterInput.of(stack));
+            }
+
+            @Override
+            public boolean matches(FilterInput input) {
+                evaluations[0]++;
+                return check.test(input);
+            }
+
+            @Override
+            public int cost() {
+                return cost;
+            }
+
+            @Override
+            public String toString() {
+                return "counting";
+            }
+        };
+    }
+
+    @Test
+    void compiledFilterRunsCheapRuleBeforeExpensiveOne() {
+        for (boolean generate : new boolean[] {false, true}) {
+            int[] evaluations = {0};
+            // Configured first, but costlier than !stackable
+            FilterRule expensive = countingRule(CompiledFilter.COST_DEFAULT, evaluations, input -> true);
+            CompiledFilter filter = CompiledFilter.compile(List.of(
+                    expensive, FilterRuleFactory.fromYaml(null, "!stackable", null)), generate);
+
+            assertFalse(filter.matches(FilterInput.of(new ItemStack(Items.COBBLESTONE))));
+            assertEquals(0, evaluations[0],
+                    "Expensive rule should never run once the cheap rule rejected (generated: " + generate + ")");
+
+            assertTrue(filter.matches(FilterInput.of(new ItemStack(Items.DIAMOND_SWORD))));
+            assertEquals(1, evaluations[0], "Expensive rule should run once the cheap rule passed");
+        }
+    }
+
+    @Test
+    void filterInputReadsComponentsOnceAcrossRules() {
+        int[] evaluations = {0};
+        ItemStack stack = namedStack(Items.DIAMOND_SWORD, "Excalibur");
+        // The first rule renames the stack after reading its name; later rules must still see the first read
+        FilterRule renaming = countingRule(CompiledFilter.COST_DURABILITY, evaluations, input -> {
+            boolean named = input.customName() != null && input.hoverName().equals("Excalibur");
+            input.stack().set(DataComponents.CUSTOM_NAME, Component.literal("Renamed"));
+            return named;
+        });
+        FilterRule nameRule = FilterRuleFactory.fromYaml(null, "custom_name", "Excalibur");
+        CompiledFilter filter = CompiledFilter.compile(List.of(renaming, nameRule), false);
+
+        assertTrue(filter.matches(FilterInput.of(stack)),
+                "custom_name should reuse the name read by the first rule, not read the component again");
+        assertEquals(1, evaluations[0]);
+        assertFalse(filter.matches(FilterInput.of(stack)), "A new FilterInput reads the renamed stack");
+    }
+
+    // ========== Adaptive Ordering ==========
+
+    @Test
+    void compiledFilterStartsCheapestFirst() {
+        CompiledFilter filter = CompiledFilter.compile(List.of(
+                FilterRuleFactory.fromYaml(null, "custom_name", "*"),
+                FilterRuleFactory.fromYaml(null, "!stackable", null)));
+
+        assertEquals("!stackable", filter.getStats().get(0).rule());
+    }
+
+    @Test
+    void compiledFilterMovesSelectiveRuleFirst() {
+        CompiledFilter filter = CompiledFilter.compile(List.of(
+                FilterRuleFactory.fromYaml(null, "!stackable", null),
+                FilterRuleFactory.fromYaml(null, "custom_name", "*")));
+
+        // An unnamed sword passes !stackable but is always rejected by custom_name
+        FilterInput input = FilterInput.of(new ItemStack(Items.DIAMOND_SWORD));
+        for (int i = 0; i < 2000; i++) {
+            assertFalse(filter.matches(input));
+        }
+
+        assertEquals("custom_name: *", filter.getStats().get(0).rule());
+        assertTrue(filter.matches(FilterInput.of(namedStack(Items.DIAMOND_SWORD, "Excalibur"))),
+                "Re-ordering must not change the result");
+    }
+
+    @Test
+    void compiledFilterReordersSafelyAcrossThreads() throws InterruptedException {
+        CompiledFilter filter = CompiledFilter.compile(List.of(
+                FilterRuleFactory.fromYaml(null, "!stackable", null),
+                FilterRuleFactory.fromYaml(null, "custom_name", "Excalibur"),
+                FilterRuleFactory.fromYaml(null, "durability", ">=50%")), false);
+        ItemStack named = namedStack(Items.DIAMOND_SWORD, "Excalibur");
+        ItemStack unnamed = new ItemStack(Items.DIAMOND_SWORD);
+
+        // Like the server thread and a sort planning thread sharing a category's filter
+        boolean[] wrong = new boolean[2];
+        Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    if (!filter.matches(FilterInput.of(named)) || filter.matches(FilterInput.of(unnamed))) {
+                        wrong[index] = true;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertFalse(wrong[0] || wrong[1], "Concurrent re-ordering must not change the result");
+        assertEquals(3, filter.getStats().stream().map(CompiledFilter.RuleStats::rule).distinct().count(),
+                "Every rule should appear exactly once after concurrent re-ordering");
+    }
+
+    // ========== Generated Filters ==========
+
+    @Test
+    void generatedFilterIsUsedWhenRequested() {
+        List<FilterRule> rules = List.of(FilterRuleFactory.fromYaml(null, "!stackable", null));
+
+        assertTrue(CompiledFilter.compile(rules, true).isGenerated());
+        assertFalse(CompiledFilter.compile(rules, false).isGenerated());
+    }
+
+    @Test
+    void generatedFilterMatchesLikeAdaptiveFilter() {
+        // Nested groups and negations exercise every branch shape the generator emits
+        List<FilterRule> rules = FilterRuleFactory.fromYamlList(null, List.of(
+                Map.of("any_of", List.of(
+                        Map.of("custom_name", "Excalibur"),
+                        Map.of("all_of", List.of(
+                                Map.of("durability", ">=25%"),
+                                Map.of("durability", "<=75%"))))),
+                Map.of("not", List.of(Map.of("stackable", ""))),
+                Map.of("!any_of", List.of(
+                        Map.of("durability", "<10%"),
+                        Map.of("custom_name", "Junk")))));
+        CompiledFilter generated = CompiledFilter.compile(rules, true);
+        CompiledFilter adaptive = CompiledFilter.compile(rules, false);
+        assertTrue(generated.isGenerated());
+
+        List<ItemStack> stacks = List.of(
+                ItemStack.EMPTY,
+                new ItemStack(Items.DIAMOND),
+                new ItemStack(Items.DIAMOND_SWORD),
+                namedStack(Items.DIAMOND_SWORD, "Excalibur"),
+                namedStack(Items.DIAMOND_SWORD, "Junk"),
+                damagedStack(Items.DIAMOND_SWORD, 5),
+                damagedStack(Items.DIAMOND_SWORD, 50),
+                damagedStack(Items.DIAMOND_SWORD, 90));
+        for (ItemStack stack : stacks) {
+            assertEquals(adaptive.matches(FilterInput.of(stack)), generated.matches(FilterInput.of(stack)),
+                    "Generated filter disagrees on " + stack);
+        }
+        assertTrue(generated.matches(FilterInput.of(damagedStack(Items.DIAMOND_SWORD, 50))));
+        assertFalse(generated.matches(FilterInput.of(ItemStack.EMPTY)));
+    }
+
+    @Test
+    void negatedEmptyStackNeverMatchesWhenGenerated() {
+        List<FilterRule> rules = FilterRuleFactory.fromYamlList(null, List.of(
+                Map.of("!custom_name", "Excalibur")));
+
+        assertFalse(CompiledFilter.compile(rules, true).matches(FilterInput.of(ItemStack.EMPTY)));
+        assertTrue(CompiledFilter.compile(rules, true).matches(FilterInput.of(new ItemStack(Items.DIAMOND_SWORD))));
+    }
+
+    @Test
+    void compositeFiltersNeverMatchEmptyStack() {
+        // Each group matches a plain sword, so only the empty stack check can reject
+        for (String key : List.of("any_of", "all_of", "not")) {
+            List<FilterRule> rules = FilterRuleFactory.fromYamlList(null, List.of(
+                    Map.of(key, List.of(Map.of(key.equals("not") ? "custom_name" : "!custom_name", "Junk")))));
+            FilterRule group = rules.get(0);
+
+            assertFalse(group.matches(ItemStack.EMPTY), key + " should not match an empty stack");
+            assertFalse(group.matches(FilterInput.of(ItemStack.EMPTY)), key + " should not match an empty stack");
+            for (boolean generate : new boolean[] {false, true}) {
+                CompiledFilter filter = CompiledFilter.compile(rules, generate);
+                assertFalse(filter.matches(FilterInput.of(ItemStack.EMPTY)),
+                        key + " should not match an empty stack (generated: " + generate + ")");
+                assertTrue(filter.matches(FilterInput.of(new ItemStack(Items.DIAMOND_SWORD))),
+                        key + " should match a plain sword (generated: " + generate + ")");
+            }
+        }
+    }
+
+    // ========== Match Cache ==========
+
+    @Test
+    void cachedMatchesDistinguishComponents() {
+        String yaml = """
+            named_swords:
+              items:
+              - minecraft:diamond_sword
+              filters:
+              - custom_name: "Excalibur"
+            """;
+        loadCategories(yaml);
+
+        ItemStack namedSword = namedStack(Items.DIAMOND_SWORD, "Excalibur");
+        ItemStack plainSword = new ItemStack(Items.DIAMOND_SWORD);
+
+        // Repeat lookups so the second round is answered from the cache
+        for (int i = 0; i < 2; i++) {
+            assertStackMatchesCategory(namedSword, "named_swords");
+            assertStackDoesNotMatchCategory(plainSword, "named_swords");
+        }
+        assertStackMatchesCategory(namedStack(Items.DIAMOND_SWORD, 5, "Excalibur"), "named_swords");
+    }
+
+    @Test
+    void cachedMatchesAreUnmodifiable() {
+        loadCategories(categoryYaml("gems", "minecraft:diamond"));
+
+        ItemStack diamond = new ItemStack(Items.DIAMOND);
+        assertThrows(UnsupportedOperationException.class, () -> getMatchingCategories(diamond).clear());
+        assertEquals(1, getMatchingCategories(diamond).size());
+    }
+
+    @Test
+    void matchCacheDroppedOnReload() {
+        loadCategories(categoryYaml("gems", "minecraft:diamond"));
+        assertStackMatchesCategory(new ItemStack(Items.DIAMOND), "gems");
+
+        CategoryLoader.clear();
+        loadCategories(categoryYaml("ores", "minecraft:diamond"));
+
+        assertStackMatchesCategory(new ItemStack(Items.DIAMOND), "ores");
+        assertStackDoesNotMatchCategory(new ItemStack(Items.DIAMOND), "gems");
+    }
+}
@@ -0,0 +1,98 @@
+package net.sortcraft.test;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.SimpleContainer;
+import net.sortcraft.container.ChestRef;
+import net.sortcraft.container.DestinationInventory;
+import net.sortcraft.container.SortContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bootstrap tests for the per-operation category chest cache of {@link SortContext}.
+ * The resolver stands in for the world lookup and counts how often it is called.
+ */
+public class SortContextTest extends SortcraftBootstrapTestBase {
+
+    private static SortContext newContext() {
+        // Category chest resolution never touches the world itself; that's the resolver's job
+        return new SortContext(null, BlockPos.ZERO, 5);
+    }
+
+    private static Function<String, List<ChestRef>> countingResolver(int[] calls, List<ChestRef> chests) {
+        return name -> {
+            calls[0]++;
+            return chests;
+        };
+    }
+
+    @Test
+    void categoryResolvedTwiceHitsWorldOnce() {
+        SortContext context = newContext();
+        int[] calls = {0};
+        List<ChestRef> chests = List.of(new ChestRef(new BlockPos(1, 2, 3), new SimpleContainer(27)));
+        Function<String, List<ChestRef>> resolver = countingResolver(calls, chests);
+
+        List<ChestRef> first = context.getCategoryChests("swords", resolver);
+        List<ChestRef> second = context.getCategoryChests("swords", resolver);
+
+        assertEquals(1, calls[0], "Second lookup of the same category should come from the cache");
+        assertSame(first, second);
+        assertSame(chests, first);
+    }
+
+    @Test
+    void missingCategoryIsCachedAsEmpty() {
+        SortContext context = newContext();
+        int[] calls = {0};
+        Function<String, List<ChestRef>> resolver = countingResolver(calls, List.of());
+
+        assertTrue(context.getCategoryChests("axes", resolver).isEmpty());
+        assertTrue(context.getCategoryChests("axes", resolver).isEmpty());
+
+        assertEquals(1, calls[0], "A category without chests should only be looked up once");
+    }
+
+    @Test
+    void categoriesAreCachedSeparately() {
+        SortContext context = newContext();
+        int[] calls = {0};
+        Function<String, List<ChestRef>> resolver = countingResolver(calls, List.of());
+
+        context.getCategoryChests("swords", resolver);
+        context.getCategoryChests("axes", resolver);
+        context.getCategoryChests("swords", resolver);
+
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    void forgetResolvedChestsResolvesAgain() {
+        SortContext context = newContext();
+        int[] calls = {0};
+        Function<String, List<ChestRef>> resolver = countingResolver(calls, List.of());
+
+        context.getCategoryChests("swords", resolver);
+        context.forgetResolvedChests();
+        context.getCategoryChests("swords", resolver);
+
+        assertEquals(2, calls[0], "Forgotten categories should be resolved from the world again");
+    }
+
+    @Test
+    void forgetResolvedChestsRebuildsDestinationIndex() {
+        SortContext context = newContext();
+        SimpleContainer container = new SimpleContainer(27);
+
+        DestinationInventory before = context.getDestinationInventory(container);
+        assertSame(before, context.getDestinationInventory(container));
+
+        context.forgetResolvedChests();
+        assertNotSame(before, context.getDestinationInventory(container),
+                "Slot indexes should be rebuilt after forgetting resolved chests");
+    }
+}